@@ -0,0 +1,154 @@
+package classes;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One round of bets at a <PokerTable>, the same loop whoever decides for the
+ * players. Players are asked in turn, from the first seat, until every player
+ * that can still bet has acted since the last raise, or only one player is left
+ * in the hand.
+ *
+ * The round asks the <DecisionSource> of a player and only goes on once the
+ * decision is there. Decisions that are already complete are applied in a loop;
+ * a decision that comes later picks the round up from the thread that completes
+ * it. The end of the round completes the future given by <start>.
+ *
+ * Who can still bet is read from the bitmasks of the <Seats>, which the
+ * players update as they bet and fold.
+ *
+ * <play> runs the same round waiting for each decision on the calling thread.
+ * It allocates nothing, so a table keeps one round and plays it again and again.
+ */
+class BettingRound {
+	private final PokerTable table;
+	private Seats seats;
+	private CompletableFuture<Integer> done;
+	// seat to start looking from for the next player to ask
+	private int seat;
+	// players that still have to act before the round is over
+	private int toAct;
+
+	BettingRound(PokerTable table) {
+		this.table = table;
+	}
+
+	/**
+	 * @return a future completed at the end of the round with the number of
+	 *         players that can still bet
+	 */
+	CompletableFuture<Integer> start() {
+		this.done = new CompletableFuture<>();
+		this.begin();
+		this.proceed();
+		return this.done;
+	}
+
+	/**
+	 * Plays the whole round, waiting for the decisions that are not there yet
+	 *
+	 * @return the number of players that can still bet
+	 */
+	int play() {
+		this.begin();
+		for (int seat = this.nextSeat(); seat >= 0; seat = this.nextSeat()) {
+			Player player = this.seats.get(seat);
+			this.apply(seat, this.table.getDecisionSource(player).decide(player, this.table.highestBet)
+					.toCompletableFuture().join());
+		}
+		return this.end();
+	}
+
+	private void begin() {
+		this.seats = this.table.seats;
+		this.seat = 0;
+		long betting = this.seats.betting();
+		this.toAct = Long.bitCount(betting);
+		// a player alone with players that are all in only has to pay what he owes
+		if (this.toAct == 1 && this.seats.getBet(Long.numberOfTrailingZeros(betting)) >= this.table.highestBet) {
+			this.toAct = 0;
+		}
+	}
+
+	/**
+	 * @return the seat of the next player to ask, -1 if the round is over
+	 */
+	private int nextSeat() {
+		if (this.toAct <= 0 || Long.bitCount(this.seats.inHand()) <= 1) {
+			return -1;
+		}
+		int seat = Seats.next(this.seats.betting(), this.seat);
+		if (seat >= 0) {
+			this.seat = seat + 1;
+		}
+		return seat;
+	}
+
+	/**
+	 * @return the number of players that can still bet
+	 */
+	private int end() {
+		this.table.resetPlayersRaise();
+		return Long.bitCount(this.seats.betting());
+	}
+
+	private void proceed() {
+		try {
+			for (int next = this.nextSeat(); next >= 0; next = this.nextSeat()) {
+				int seat = next;
+				Player player = this.seats.get(seat);
+				CompletableFuture<Decision> decision = this.table.getDecisionSource(player)
+						.decide(player, this.table.highestBet).toCompletableFuture();
+				if (!decision.isDone()) {
+					decision.whenComplete((answer, error) -> {
+						if (error != null) {
+							this.done.completeExceptionally(error);
+							return;
+						}
+						try {
+							this.apply(seat, answer);
+						} catch (RuntimeException e) {
+							this.done.completeExceptionally(e);
+							return;
+						}
+						this.proceed();
+					});
+					return;
+				}
+				this.apply(seat, decision.join());
+			}
+			this.done.complete(this.end());
+		} catch (RuntimeException e) {
+			this.done.completeExceptionally(e);
+		}
+	}
+
+	private void apply(int seat, Decision decision) {
+		Player player = this.seats.get(seat);
+		int highestBet = this.table.highestBet;
+		switch (decision.getAction()) {
+		case FOLD:
+			player.fold();
+			player.setCurrentlyRaising(false);
+			this.table.listener.fold(player);
+			this.toAct--;
+			return;
+		case RAISE:
+			player.bet(highestBet - player.getBet() + decision.getAmount());
+			break;
+		default:
+			player.call(highestBet - player.getBet());
+		}
+		this.table.listener.bet(player, player.getBet(), highestBet);
+		if (player.getBet() > highestBet) {
+			this.table.highestBet = player.getBet();
+			// every other player has to answer the raise, even one that went all in
+			// for more than the highest bet
+			this.table.resetPlayersRaise();
+			player.setCurrentlyRaising(true);
+			this.toAct = Long.bitCount(this.seats.betting() & ~(1L << seat));
+		} else {
+			player.setCurrentlyRaising(false);
+			this.toAct--;
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package classes;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Lets the <Player> decide by himself, with <Player.getCommand> and
+ * <Player.getBetAmount>
+ */
+public class BotDecisionSource implements DecisionSource {
+	// a complete future can't change anymore, calls and folds share one
+	private static final CompletableFuture<Decision> CALL = CompletableFuture.completedFuture(Decision.call());
+	private static final CompletableFuture<Decision> FOLD = CompletableFuture.completedFuture(Decision.fold());
+
+	@Override
+	public CompletionStage<Decision> decide(Player player, int highestBet) {
+		int command = player.getCommand();
+		Decision decision = Decision.fromCommand(command, command == 3 ? player.getBetAmount() : 0);
+		if (decision == Decision.call()) {
+			return CALL;
+		}
+		return decision == Decision.fold() ? FOLD : CompletableFuture.completedFuture(decision);
+	}
+}
@@ -1,30 +1,80 @@
 package classes;
 
+/**
+ * A card is immutable, and there are only 52 of them : <Card.of> and
+ * <Card.get> give back the same instances every time, so dealing cards never
+ * allocates. Each card has an index from 0 to 51, <CardColor> by <CardColor>,
+ * that can be used instead of the two enums. Two cards are equal when they have
+ * the same index.
+ */
 public class Card  {
+	/**
+	 * Number of cards in a deck
+	 */
+	public static final int COUNT = 52;
+	private static final int VALUE_COUNT = 13;
+	private static final Card[] CARDS = new Card[COUNT];
+
+	static {
+		for (CardColor color : CardColor.values()) {
+			for (CardValue value : CardValue.values()) {
+				Card card = new Card(value, color);
+				CARDS[card.index] = card;
+			}
+		}
+	}
+
 	// les attributs
-	private CardValue cardValue;
-	private CardColor cardColor;
+	private final CardValue cardValue;
+	private final CardColor cardColor;
+	private final int index;
 
 	// le constructeur
+	/**
+	 * Only kept for code that builds its own cards, use <Card.of> to get the
+	 * shared instance.
+	 */
 	public Card(CardValue value, CardColor color) {
 		this.cardValue = value;
 		this.cardColor = color;
+		this.index = color.ordinal() * VALUE_COUNT + value.ordinal();
 	}
 
-	public CardValue getCardValue() {
-		return cardValue;
+	/**
+	 * @return the shared instance of a card
+	 */
+	public static Card of(CardValue value, CardColor color) {
+		return CARDS[color.ordinal() * VALUE_COUNT + value.ordinal()];
+	}
+
+	/**
+	 * @param index : 0 to 51
+	 * @return the shared instance of the card with that index
+	 */
+	public static Card get(int index) {
+		return CARDS[index];
 	}
 
-	public void setCardValue(CardValue cardValue) {
-		this.cardValue = cardValue;
+	public CardValue getCardValue() {
+		return cardValue;
 	}
 
 	public CardColor getCardColor() {
 		return cardColor;
 	}
 
-	public void setCardColor(CardColor cardColor) {
-		this.cardColor = cardColor;
+	/**
+	 * @return the index of the card, from 0 to 51
+	 */
+	public int getIndex() {
+		return index;
+	}
+
+	/**
+	 * @return the bit of the card in a card mask, see <BitmaskEvaluator>
+	 */
+	public long getMask() {
+		return 1L << (this.cardColor.ordinal() << 4 | this.cardValue.ordinal());
 	}
 
 	// les méthodes
@@ -48,8 +98,14 @@ public class Card  {
 		return String.valueOf(this.cardValue) + " of " + color;
 	}
 
-	public boolean equals(Card card) {
-		return this.getCardValue() == card.getCardValue();
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Card && ((Card) o).index == this.index;
+	}
+
+	@Override
+	public int hashCode() {
+		return this.index;
 	}
 
 	public boolean compareTo(Card card) {
@@ -61,4 +117,4 @@ public class Card  {
 		return c1.getCardValue().compare(c2.getCardValue());
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package classes;
+
+import java.io.InputStream;
+import java.util.Scanner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Asks the player in front of the console. Reading the console blocks, so the
+ * decision is complete when it's returned.
+ */
+public class ConsoleDecisionSource implements DecisionSource {
+	private final Scanner scanner;
+
+	public ConsoleDecisionSource() {
+		this(System.in);
+	}
+
+	public ConsoleDecisionSource(InputStream in) {
+		this.scanner = new Scanner(in);
+	}
+
+	@Override
+	public CompletionStage<Decision> decide(Player player, int highestBet) {
+		System.out.println("Current highest bet is " + highestBet);
+		System.out.println(player.getName() + ", you are currently betting " + player.getBet());
+		player.printHand();
+		System.out.println("Press 1 to call, 2 to fold, 3 to raise");
+		int answer = this.scanner.nextInt();
+		while (answer != 1 && answer != 2 && answer != 3) {
+			System.out.println("Wrong command ! Try again: ");
+			answer = this.scanner.nextInt();
+		}
+		int amount = 0;
+		if (answer == 3) {
+			System.out.println("How much do you want to raise by? (negative will call!)");
+			amount = this.scanner.nextInt();
+		}
+		return CompletableFuture.completedFuture(Decision.fromCommand(answer, amount));
+	}
+}
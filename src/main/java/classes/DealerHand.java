@@ -3,16 +3,41 @@ package classes;
 import java.util.ArrayList;
 import java.util.List;
 
+import logic.BoardRankTable;
+
+/**
+ * The cards shared by every player. Besides the list of cards, the dealer hand
+ * keeps the state used to evaluate hands up to date as cards are added : the
+ * card mask, the values seen at least once, twice, three and four times, and
+ * how many cards of each color there are. Evaluating a player hand then only
+ * adds the player cards to that state.
+ */
 public class DealerHand {
 	private List<Card> dealerHand;
 	private Deck deck;
+	// card mask of the cards, see BitmaskEvaluator
+	private long cardMask;
+	// 13-bit sets of the values appearing at least once, twice, three and four times
+	private int ranks;
+	private int pairs;
+	private int trips;
+	private int quads;
+	// one byte per color
+	private int colorCounts;
+	private int longestColor;
+	// built the first time it's asked for, once the river is out
+	private BoardRankTable rankTable;
+
 	public DealerHand(Deck deck) {
 		this.dealerHand=new ArrayList<>();
 		this.deck = deck;
 	}
 	
 	public void flop() {
-		this.addToDealerHand(deck.getRandomCards(3));
+		// drawn one by one, no list is needed
+		for (int i = 0; i < 3; i++) {
+			this.addToDealerHand(deck.draw());
+		}
 	}
 	public void turn() {
 		this.addToDealerHand(deck.draw());
@@ -23,6 +48,35 @@ public class DealerHand {
 	
 	public void addToDealerHand(Card card) {
 		this.dealerHand.add(card);
+		this.addToState(card);
+	}
+
+	/**
+	 * Updates the evaluation state with a new card
+	 */
+	private void addToState(Card card) {
+		int value = 1 << card.getCardValue().ordinal();
+		// a value seen three times is now seen four times, etc...
+		this.quads |= this.trips & value;
+		this.trips |= this.pairs & value;
+		this.pairs |= this.ranks & value;
+		this.ranks |= value;
+		this.cardMask |= card.getMask();
+		int shift = card.getCardColor().ordinal() << 3;
+		this.colorCounts += 1 << shift;
+		this.rankTable = null;
+		this.longestColor = Math.max(this.longestColor, (this.colorCounts >>> shift) & 0xFF);
+	}
+
+	private void clearState() {
+		this.cardMask = 0;
+		this.ranks = 0;
+		this.pairs = 0;
+		this.trips = 0;
+		this.quads = 0;
+		this.colorCounts = 0;
+		this.longestColor = 0;
+		this.rankTable = null;
 	}
 	
 	public void addToDealerHand(List<Card> cards) {
@@ -33,16 +87,72 @@ public class DealerHand {
 	public List<Card> getDealerHand() {
 		return this.dealerHand;
 	}
-	public void printHand() {
-		System.out.println("Dealer"+ " has the following hand :");
-		for (Card card : this.dealerHand) {
-			System.out.println(card);
-		}
-	}
 	public void clear() {
 		this.dealerHand.clear();
+		this.clearState();
 	}
 	public void setHand(List<Card> cards) {
 		this.dealerHand=cards;
+		this.clearState();
+		for (int i = 0; i < cards.size(); i++) {
+			this.addToState(cards.get(i));
+		}
+	}
+
+	/**
+	 * @return the card mask of the dealer hand, see <BitmaskEvaluator>
+	 */
+	public long getCardMask() {
+		return cardMask;
+	}
+
+	/**
+	 * @return the 13-bit set of values of the dealer hand
+	 */
+	public int getRankMask() {
+		return ranks;
+	}
+
+	/**
+	 * @return the 13-bit set of values appearing at least twice
+	 */
+	public int getPairMask() {
+		return pairs;
+	}
+
+	/**
+	 * @return the 13-bit set of values appearing at least three times
+	 */
+	public int getTripsMask() {
+		return trips;
+	}
+
+	/**
+	 * @return the 13-bit set of values appearing four times
+	 */
+	public int getQuadsMask() {
+		return quads;
+	}
+
+	public int getColorCount(CardColor color) {
+		return (this.colorCounts >>> (color.ordinal() << 3)) & 0xFF;
+	}
+
+	/**
+	 * @return the ranks of every combo of 2 cards with the 5 cards of the dealer
+	 *         hand, built on the first call
+	 */
+	public BoardRankTable getRankTable() {
+		if (this.rankTable == null) {
+			this.rankTable = new BoardRankTable(this.cardMask);
+		}
+		return this.rankTable;
+	}
+
+	/**
+	 * @return the number of cards of the color with the most cards
+	 */
+	public int getLongestColor() {
+		return longestColor;
 	}
 }
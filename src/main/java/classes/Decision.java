@@ -0,0 +1,71 @@
+package classes;
+
+/**
+ * What a player does when it's his turn to bet : call, fold, or raise by some
+ * amount
+ */
+public final class Decision {
+	public enum Action {
+		CALL, FOLD, RAISE;
+	}
+
+	private static final Decision CALL = new Decision(Action.CALL, 0);
+	private static final Decision FOLD = new Decision(Action.FOLD, 0);
+
+	private final Action action;
+	private final int amount;
+
+	private Decision(Action action, int amount) {
+		this.action = action;
+		this.amount = amount;
+	}
+
+	public static Decision call() {
+		return CALL;
+	}
+
+	public static Decision fold() {
+		return FOLD;
+	}
+
+	/**
+	 * @param amount : how much to add to the highest bet. 0 or less is a call
+	 */
+	public static Decision raise(int amount) {
+		return amount > 0 ? new Decision(Action.RAISE, amount) : CALL;
+	}
+
+	/**
+	 * @param command : 1 to call, 2 to fold, 3 to raise, like
+	 *                <Player.getCommand>
+	 * @param amount  : how much to raise by, only read for a raise
+	 */
+	public static Decision fromCommand(int command, int amount) {
+		switch (command) {
+		case 1:
+			return CALL;
+		case 2:
+			return FOLD;
+		case 3:
+			return raise(amount);
+		default:
+			throw new IllegalArgumentException("Not a command : " + command);
+		}
+	}
+
+	public Action getAction() {
+		return action;
+	}
+
+	/**
+	 * @return how much the player raises by, 0 if he doesn't raise
+	 */
+	public int getAmount() {
+		return amount;
+	}
+
+	@Override
+	public String toString() {
+		return this.action == Action.RAISE ? "RAISE " + this.amount : this.action.toString();
+	}
+}
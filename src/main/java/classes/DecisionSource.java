@@ -0,0 +1,23 @@
+package classes;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Gives the <Decision> of a player when it's his turn to bet : the console, a
+ * bot, a remote client...
+ *
+ * The decision is given back as a future, and the table doesn't wait on it : a
+ * source that answers at once returns a completed future and the betting round
+ * goes on right away, a source that answers later (a remote client, a timer...)
+ * completes the future from its own thread, and the betting round goes on from
+ * that thread. No thread is held per seat while a player thinks.
+ */
+public interface DecisionSource {
+	/**
+	 * @param player     : the player whose turn it is
+	 * @param highestBet : the highest bet of the table, the player calls by
+	 *                   matching it
+	 * @return the decision of the player
+	 */
+	CompletionStage<Decision> decide(Player player, int highestBet);
+}
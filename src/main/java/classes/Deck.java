@@ -2,39 +2,67 @@ package classes;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGenerator.SplittableGenerator;
 
 public class Deck {
-	private List<Card> cards;
-	private Random random = new Random();
+	// indexes of the cards, see <Card.getIndex>. The cards still in the deck are
+	// the first <size> ones, the cards drawn are after them
+	private final int[] cards = new int[Card.COUNT];
+	// position of each card in <cards>
+	private final int[] positions = new int[Card.COUNT];
+	private int size;
+	// gives the seed of each hand
+	private final RandomGenerator random;
+	private long handSeed;
+	// state of the generator the cards of the current hand are drawn with
+	private long state;
 
 	/**
 	 * A deck contains all cards from 2 to ace, of all 4 colors, and each card only
 	 * appears once. Drawing from the deck removes the card from the deck.
+	 * 
+	 * Drawing a card swaps a random card with the last card of the deck, then
+	 * makes the deck one card shorter, so the drawn cards pile up at the end of the
+	 * array. Nothing is allocated or shifted.
+	 * 
+	 * Every hand gets its own seed, taken from the <RandomGenerator> of the deck.
+	 * The cards of the hand only depend on that seed, so a hand can be dealt again
+	 * from its seed with <resetDeck(long)>.
 	 */
 
 	public Deck() {
-		this.cards = new ArrayList<>(52);
-		int k = 0;
-		for (int i = 0; i < 13; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.CLOVER));
-			k++;
-		}
-		k = 0;
-		for (int i = 13; i < 26; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.DIAMOND));
-			k++;
-		}
-		k = 0;
-		for (int i = 26; i < 39; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.SPADE));
-			k++;
-		}
-		k = 0;
-		for (int i = 39; i < 52; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.HEART));
-			k++;
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * @param seed : seed of the seeds of the hands, the same seed deals the same
+	 *             hands
+	 */
+	public Deck(long seed) {
+		this(new SplittableRandom(seed));
+	}
+
+	/**
+	 * @param random : gives the seed of each hand. A deck uses it from a single
+	 *               thread, so it doesn't need to be thread safe
+	 */
+	public Deck(RandomGenerator random) {
+		this.random = random;
+		this.resetDeck();
+	}
+
+	/**
+	 * Creates a deck with an independent stream of hands, for instance for another
+	 * thread of a simulation. Splitting a deck with a given seed always gives the
+	 * same decks.
+	 */
+	public Deck split() {
+		if (this.random instanceof SplittableGenerator) {
+			return new Deck(((SplittableGenerator) this.random).split());
 		}
+		return new Deck(new SplittableRandom(this.random.nextLong()));
 	}
 
 	// les méthodes
@@ -60,10 +88,21 @@ public class Deck {
 	 * @return card drawn
 	 */
 	public Card draw() {
-		int i = random.nextInt(this.cards.size());
-		Card toReturn = this.cards.get(i);
-		this.cards.remove(i);
-		return toReturn;
+		return Card.get(this.drawIndex());
+	}
+
+	/**
+	 * Same as <draw>, without looking up the <Card>
+	 * 
+	 * @return index of the card drawn
+	 */
+	public int drawIndex() {
+		if (this.size == 0) {
+			throw new IllegalStateException("The deck is empty");
+		}
+		int card = this.cards[this.nextInt(this.size)];
+		this.moveTo(card, --this.size);
+		return card;
 	}
 
 	/**
@@ -76,36 +115,128 @@ public class Deck {
 
 	};
 
+	/**
+	 * Puts cards back in the deck. Cards already in the deck are ignored.
+	 */
 	public void returnToDeck(List<Card> cards) {
-		for (Card card : cards) {
-			this.cards.add(card);
+		for (int i = 0; i < cards.size(); i++) {
+			int card = cards.get(i).getIndex();
+			if (this.positions[card] >= this.size) {
+				this.moveTo(card, this.size++);
+			}
 		}
 	}
-	
-	public void resetDeck() {
-		this.cards = new ArrayList<>(52);
-		int k = 0;
-		for (int i = 0; i < 13; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.CLOVER));
-			k++;
-		}
-		k = 0;
-		for (int i = 13; i < 26; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.DIAMOND));
-			k++;
+
+	/**
+	 * Takes a given card out of the deck, for instance a card that is known to be
+	 * in a hand.
+	 * 
+	 * @return false if the card was not in the deck
+	 */
+	public boolean remove(Card card) {
+		int index = card.getIndex();
+		if (this.positions[index] >= this.size) {
+			return false;
 		}
-		k = 0;
-		for (int i = 26; i < 39; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.SPADE));
-			k++;
+		this.moveTo(index, --this.size);
+		return true;
+	}
+
+	public boolean contains(Card card) {
+		return this.positions[card.getIndex()] < this.size;
+	}
+
+	/**
+	 * @return the number of cards left in the deck
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Puts back every card drawn since the deck had the given size, in O(1) :
+	 * simulations remember <size> after taking out the known cards, then rewind to
+	 * it after each sample.
+	 * 
+	 * @param size : a size of the deck, since when only draws and removals happened
+	 */
+	public void rewind(int size) {
+		if (size < this.size || size > Card.COUNT) {
+			throw new IllegalArgumentException("Can't rewind a deck of " + this.size + " cards to " + size);
 		}
-		k = 0;
-		for (int i = 39; i < 52; i++) {
-			this.cards.add(i, new Card(CardValue.values()[k], CardColor.HEART));
-			k++;
+		this.size = size;
+	}
+
+	/**
+	 * Puts the 52 cards back in the deck and starts a new hand with a new seed
+	 */
+	public void resetDeck() {
+		this.resetDeck(this.random.nextLong());
+	}
+
+	/**
+	 * Puts the 52 cards back in the deck and starts a hand with the given seed :
+	 * the same seed deals the same cards in the same order.
+	 * 
+	 * @param handSeed : a seed given by <getHandSeed>
+	 */
+	public void resetDeck(long handSeed) {
+		// the cards go back in their initial order, so the cards of the hand only
+		// depend on the seed
+		for (int i = 0; i < Card.COUNT; i++) {
+			this.cards[i] = i;
+			this.positions[i] = i;
 		}
+		this.size = Card.COUNT;
+		this.handSeed = handSeed;
+		this.state = handSeed;
 	}
+
+	/**
+	 * @return the seed of the current hand, to deal it again with
+	 *         <resetDeck(long)>
+	 */
+	public long getHandSeed() {
+		return this.handSeed;
+	}
+
 	public void discard() {
-		this.cards.remove(random.nextInt(this.cards.size()));
+		this.drawIndex();
+	}
+
+	/**
+	 * SplitMix64 : a generator that can be seeded again without allocating
+	 */
+	private long nextLong() {
+		long z = (this.state += 0x9E3779B97F4A7C15L);
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @return a random int from 0 to bound excluded, without bias
+	 */
+	private int nextInt(int bound) {
+		// rejects the values of the last incomplete range, like <Random.nextInt>
+		int bits = (int) (this.nextLong() >>> 33);
+		int value = bits % bound;
+		while (bits - value + (bound - 1) < 0) {
+			bits = (int) (this.nextLong() >>> 33);
+			value = bits % bound;
+		}
+		return value;
+	}
+
+	/**
+	 * Swaps a card with the card at a position
+	 */
+	private void moveTo(int card, int position) {
+		int from = this.positions[card];
+		int other = this.cards[position];
+		this.cards[from] = other;
+		this.positions[other] = from;
+		this.cards[position] = card;
+		this.positions[card] = position;
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
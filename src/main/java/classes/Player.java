@@ -7,11 +7,17 @@ public class Player implements Comparable<Player> {
 	private String name;
 	private int chipStack;
 	private int bet;
+	// rank of the hand as packed by WinningCombination, -1 until it's evaluated
+	private int handRank = -1;
 	private WinningCombination combination;
 	private PlayerHand playerHand;
 	private boolean playing;
 	private boolean hasNotFolded = true;
 	private boolean currentlyRaising;
+	// once seated, the chips, bet, fold and raise are kept by the seats and the
+	// fields above are not used anymore
+	private Seats seats;
+	private int seat = -1;
 
 	public Player(String name) {
 		this(name, 0);
@@ -33,27 +39,73 @@ public class Player implements Comparable<Player> {
 	}
 
 	public int getChipStack() {
-		return chipStack;
+		return this.seats == null ? this.chipStack : this.seats.getStack(this.seat);
 	}
 
 	public void setChipStack(int chipStack) {
-		this.chipStack = chipStack;
+		if (this.seats == null) {
+			this.chipStack = chipStack;
+		} else {
+			this.seats.setStack(this.seat, chipStack);
+		}
 	}
 
 	public int getBet() {
-		return bet;
+		return this.seats == null ? this.bet : this.seats.getBet(this.seat);
 	}
 
 	public void setBet(int bet) {
-		this.bet = bet;
+		if (this.seats == null) {
+			this.bet = bet;
+		} else {
+			this.seats.setBet(this.seat, bet);
+		}
+	}
+
+	/**
+	 * Called by <Seats.add>, from now on the state of the player is kept by the
+	 * seats
+	 */
+	void sitAt(Seats seats, int seat) {
+		this.seats = seats;
+		this.seat = seat;
+	}
+
+	/**
+	 * @return the seats of the table the player sits at, null if he's not seated
+	 */
+	public Seats getSeats() {
+		return this.seats;
+	}
+
+	/**
+	 * @return his seat in <getSeats>, -1 if he's not seated
+	 */
+	public int getSeat() {
+		return this.seat;
 	}
 
 	public WinningCombination getCombination() {
-		return combination;
+		return this.getWinningCombination();
 	}
 
 	public void setCombination(WinningCombination combination) {
-		this.combination = combination;
+		this.setWinCombination(combination);
+	}
+
+	public int getHandRank() {
+		return handRank;
+	}
+
+	/**
+	 * Sets the rank of the hand. The <WinningCombination> is only built if it's
+	 * asked for.
+	 * 
+	 * @param handRank : a rank packed by <WinningCombination>
+	 */
+	public void setHandRank(int handRank) {
+		this.handRank = handRank;
+		this.combination = null;
 	}
 
 	public PlayerHand getPlayerHand() {
@@ -79,6 +131,7 @@ public class Player implements Comparable<Player> {
 
 	public void setWinCombination(WinningCombination winCondition) {
 		this.combination = winCondition;
+		this.handRank = winCondition == null ? -1 : winCondition.getRank();
 	}
 
 	public void addCard(ArrayList<Card> cards) {
@@ -98,9 +151,9 @@ public class Player implements Comparable<Player> {
 		if (!this.playing) {
 			return 0;
 		}
-		this.bet += this.chipStack;
-		this.chipStack = 0;
-		return this.bet;
+		this.setBet(this.getBet() + this.getChipStack());
+		this.setChipStack(0);
+		return this.getBet();
 	}
 
 	/**
@@ -117,13 +170,13 @@ public class Player implements Comparable<Player> {
 		if (howMuch < 0) {
 			return 0;
 		}
-		if (this.chipStack - howMuch < 0) {
+		if (this.getChipStack() - howMuch < 0) {
 			return allIn();
 		}
-		this.chipStack -= howMuch;
-		this.hasNotFolded = true;
-		this.bet += howMuch;
-		return this.bet;
+		this.setChipStack(this.getChipStack() - howMuch);
+		this.setHasNotFolded(true);
+		this.setBet(this.getBet() + howMuch);
+		return this.getBet();
 
 	}
 
@@ -132,50 +185,56 @@ public class Player implements Comparable<Player> {
 	}
 
 	public void fold() {
-		this.hasNotFolded = false;
-	}
-
-	public void lost() {
-		this.hasNotFolded = false;
-		this.bet = 0;
+		this.setHasNotFolded(false);
 	}
 
 	public void won(int winnings) {
-		this.chipStack += winnings;
-		this.bet = 0;
+		this.setChipStack(this.getChipStack() + winnings);
+		this.setBet(0);
 	}
 
 	public void addToChipStack(int n) {
-		this.chipStack += n;
+		this.setChipStack(this.getChipStack() + n);
 	}
 
 	public WinningCombination getWinningCombination() {
+		if (this.combination == null && this.handRank >= 0) {
+			this.combination = new WinningCombination(this.handRank);
+		}
 		return this.combination;
 	}
 
 	public boolean hasNotFolded() {
-		return hasNotFolded;
+		return this.seats == null ? this.hasNotFolded : !this.seats.isFolded(this.seat);
 	}
 
 	public void setHasNotFolded(boolean hasNotFolded) {
-		this.hasNotFolded = hasNotFolded;
+		if (this.seats == null) {
+			this.hasNotFolded = hasNotFolded;
+		} else {
+			this.seats.setFolded(this.seat, !hasNotFolded);
+		}
 	}
 
 	@Override
 	public int compareTo(Player player) {
-		return (this.getWinningCombination().compareTo(player.getWinningCombination()));
+		return Integer.compare(this.handRank, player.handRank);
 	}
 
 	public boolean isCurrentlyRaising() {
-		return currentlyRaising;
+		return this.seats == null ? this.currentlyRaising : this.seats.isRaising(this.seat);
 	}
 
 	public void setCurrentlyRaising(boolean currentlyRaising) {
-		this.currentlyRaising = currentlyRaising;
+		if (this.seats == null) {
+			this.currentlyRaising = currentlyRaising;
+		} else {
+			this.seats.setRaising(this.seat, currentlyRaising);
+		}
 	}
 
 	public boolean isAllIn() {
-		return this.chipStack == 0;
+		return this.getChipStack() == 0;
 	}
 	/**
 	 * Call,fold,raise
@@ -194,7 +253,7 @@ public class Player implements Comparable<Player> {
 	}
 	
 	public String toString() {
-		return this.name+" current chips: " + this.chipStack;
+		return this.name+" current chips: " + this.getChipStack();
 	}
 
 }
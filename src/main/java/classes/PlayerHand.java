@@ -17,7 +17,13 @@ public class PlayerHand {
 		this.hand=cards;
 	}
 	public void remove(Card card) {
-		this.remove(card);
+		this.hand.remove(card);
+	}
+	/**
+	 * Empties the hand, so it can be dealt again
+	 */
+	public void clear() {
+		this.hand.clear();
 	}
 	
 }
@@ -1,20 +1,25 @@
 package classes;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.random.RandomGenerator;
 
-import logic.WinConditionLogic;
-
-//TODO :Separate display and logic for PokerTable
+import events.ConsoleTableListener;
+import events.Street;
+import events.TableListener;
 
 public class PokerTable {
 	protected List<Player> playerList;
+	// the players that still have chips, in the order of their seats
 	protected List<Player> currentlyPlaying;
+	protected Seats seats = new Seats();
 	protected DealerHand dealer;
+	protected Showdown showdown;
 	protected Deck deck;
-	protected int totalBets;
 	protected int highestBet;
 	protected int numberOfTurns;
 	protected Blind bigBlind;
@@ -22,35 +27,61 @@ public class PokerTable {
 	protected Blind donor;
 	protected final int defaultBlind = 5;
 	protected final int turnsForBlindIncrease = 5;
-	protected Scanner scanner = new Scanner(System.in);
-
-	protected List<Pot> pots = new ArrayList<>();
+	// asked for the bets of the players that don't have their own source
+	protected DecisionSource decisionSource = new ConsoleDecisionSource();
+	protected Map<Player, DecisionSource> decisionSources = new HashMap<>();
+	// what happens at the table is sent there, written to the console by default
+	protected TableListener listener = new ConsoleTableListener();
+
+	// pot layers of the deal, and the ranks of the seats given to it
+	protected SidePotResolver sidePots = new SidePotResolver();
+	private int[] ranks = new int[10];
+	// played again for every synchronous round of bets
+	private final BettingRound round = new BettingRound(this);
+	// when pooled, the hands and combinations of each seat are reused every deal
+	private boolean pooled;
+	private PlayerHand[] hands;
+	private WinningCombination[] combinations;
 
 	public PokerTable() {
+		this(new SplittableRandom());
+	}
+
+	/**
+	 * @param random : gives the seed of each hand, see <Deck>
+	 */
+	public PokerTable(RandomGenerator random) {
 		this.playerList = new ArrayList<>();
 		this.currentlyPlaying = new ArrayList<>();
-		this.deck = new Deck();
+		this.deck = new Deck(random);
 		this.dealer = new DealerHand(deck);
-		totalBets = 0;
+		this.showdown = new Showdown(dealer);
 		this.highestBet = 0;
 	}
 
 	public PokerTable(Player player) {
 		this();
-		this.playerList.add(player);
-		this.currentlyPlaying.add(player);
+		this.addPlayer(player);
 	}
 
 	public PokerTable(List<Player> players) {
+		this(players, new SplittableRandom());
+	}
+
+	/**
+	 * @param players : the players of the table
+	 * @param random  : gives the seed of each hand, see <Deck>
+	 */
+	public PokerTable(List<Player> players, RandomGenerator random) {
 		this.playerList = players;
-		this.deck = new Deck();
+		this.deck = new Deck(random);
 		this.dealer = new DealerHand(deck);
+		this.showdown = new Showdown(dealer);
 		this.currentlyPlaying= new ArrayList<>();
 		for (Player player : this.playerList) {
-			if (player.getChipStack()>0) {
-				this.currentlyPlaying.add(player);
-			}
+			this.seats.add(player);
 		}
+		this.seats.playersOf(this.seats.active(), this.currentlyPlaying);
 	}
 
 	public int howManyAreStillPlaying() {
@@ -103,11 +134,8 @@ public class PokerTable {
 	 * Kicks every <Player> with no money left
 	 */
 	public void kickBrokePlayers() {
-		for (Player player : this.playerList) {
-			if (player.getChipStack() == 0) {
-				player.setPlaying(false);
-				this.currentlyPlaying.remove(player);
-			}
+		if (this.seats.kickBroke() != 0) {
+			this.seats.playersOf(this.seats.active(), this.currentlyPlaying);
 		}
 	}
 
@@ -117,8 +145,9 @@ public class PokerTable {
 	 * @param player
 	 */
 	public void addPlayer(Player player) {
+		int seat = this.seats.add(player);
 		this.playerList.add(player);
-		if (player.getChipStack() > 0) {
+		if ((this.seats.active() >>> seat & 1) != 0) {
 			this.currentlyPlaying.add(player);
 		}
 	}
@@ -127,189 +156,88 @@ public class PokerTable {
 	 * Deals 2 new cards to every player from the current deck
 	 */
 	public void giveCards() {
-		for (Player player : this.currentlyPlaying) {
-			player.setHand(new PlayerHand(this.deck.getRandomCards(2)));
+		// sent so the hand can be dealt again with <Deck.resetDeck(long)>
+		this.listener.deal(this.deck.getHandSeed());
+		for (long active = this.seats.active(); active != 0; active &= active - 1) {
+			int seat = Long.numberOfTrailingZeros(active);
+			Player player = this.seats.get(seat);
+			if (!this.pooled) {
+				player.setHand(new PlayerHand(this.deck.getRandomCards(2)));
+				continue;
+			}
+			if (this.hands[seat] == null) {
+				this.hands[seat] = new PlayerHand(new ArrayList<>(2));
+			}
+			PlayerHand hand = this.hands[seat];
+			hand.clear();
+			hand.add(this.deck.draw());
+			hand.add(this.deck.draw());
+			player.setHand(hand);
 		}
 	}
 
 	/**
-	 * Asks players to raise,call,or fold. Need to implement big blind small blind.
+	 * Asks players to raise, call or fold, until every player that can still bet
+	 * has answered the last raise. Waits for the end of the round, see
+	 * <startBettingRound>.
+	 * 
+	 * @param playersInRound : not used anymore, the players that can still bet
+	 *                       are counted from their state
+	 * @return the number of players that can still bet
 	 */
 	public int askForBets(int playersInRound) {
-		boolean everyoneCalled = false;
-		// Implementation of support for constant raising : while
-		// not everyone has called/folded (i.e. there's still a player raising)
-		// We ask every other player for a call/fold/raise
-		List<Boolean> playersCalled = new ArrayList<>();
-		while (!everyoneCalled) {
-			playersCalled.clear();
-			for (Player player : this.currentlyPlaying) {
-				// if there's more than one player to ask, player hasn't folded, isn't all in
-				// and isn't the one currently raising,
-				// ask him for bet
-				if (playersInRound > 1 && player.hasNotFolded() && !player.isAllIn() && !player.isCurrentlyRaising()) {
-					System.out.println("Current highest bet is " + this.highestBet);
-					System.out.println(player.getName() + ", you are currently betting " + player.getBet());
-					player.printHand();
-					System.out.println("Press 1 to call, 2 to fold, 3 to raise");
-					int answer = scanner.nextInt();
-					while (answer != 1 && answer != 2 && answer != 3) {
-						System.out.println("Wrong command ! Try again: ");
-						answer = scanner.nextInt();
-					}
-
-					switch (answer) {
-					case 1:
-						player.call(this.highestBet - player.getBet());
-						player.setCurrentlyRaising(false);
-						break;
-					case 2:
-						player.fold();
-						player.setCurrentlyRaising(false);
-						playersInRound--;
-						break;
-					// if a player raises, we set him to currently raising, and all the other
-					// players to not currently raising
-					case 3:
-						System.out.println("How much do you want to raise by? (negative will call!)");
-						int x = scanner.nextInt();
-						if (x > 0) {
-							player.bet(highestBet - player.getBet() + x);
-							if (player.isAllIn()) {
-								this.makePotForAllInPlayer(player);
-							}
-							for (Player aPlayer : this.currentlyPlaying) {
-								// we shouldn't have any weird behaviour
-								// if we use != for comparison, at least for now
-								aPlayer.setCurrentlyRaising(false);
-							}
-							player.setCurrentlyRaising((true));
-							playersCalled.add(false);
-						} else {
-							player.call(this.highestBet - player.getBet());
-							player.setCurrentlyRaising(false);
-							playersCalled.add(true);
-						}
-						break;
-					}
-				}
-				if (player.isAllIn()) {
-					playersInRound--;
-				}
-				this.findHighestBet();
-			}
-			everyoneCalled = true;
-			for (Boolean playerCalled : playersCalled) {
-				if (!playerCalled) {
-					everyoneCalled = false;
-				}
-			}
-		}
-		// reset player raise state for next dealer card
-		this.resetPlayersRaise();
-		return playersInRound;
+		return this.round.play();
 	}
 
 	/**
-	 * Checks what <Player> won the current round. Also supports draws
+	 * Starts a round of bets. Players are asked through their <DecisionSource>,
+	 * and the round goes on as their decisions come, without holding a thread
+	 * while a player thinks.
 	 * 
-	 * @param players
-	 * @return
+	 * @return a future completed at the end of the round with the number of
+	 *         players that can still bet
 	 */
-	public List<Player> checkWhoWins(List<Player> players) {
-		List<Player> playersThatWon = new ArrayList<>();
-		for (Player player : players) {
-			player.setWinCombination(WinConditionLogic.findWinningCombination(dealer, player.getPlayerHand()));
-		}
-		Collections.sort(players);
-		int index = players.size() - 1;
-		Player wonForSure = players.get(index);
-		// Look for the strongest player that hasn't folded
-		while (index > 0 && !wonForSure.hasNotFolded()) {
-			index--;
-			wonForSure = players.get(index);
-		}
-		playersThatWon.add(wonForSure);
-		// check for other players that haven't folded with similar strength hands
-		for (Player player : players) {
-			if (player.hasNotFolded() && !playersThatWon.contains(player) && wonForSure.compareTo(player) == 0) {
-				playersThatWon.add(player);
-			}
-		}
-		return playersThatWon;
+	public CompletableFuture<Integer> startBettingRound() {
+		return new BettingRound(this).start();
 	}
 
 	/**
-	 * Calculates total value for the base pot
+	 * @return the <DecisionSource> asked for the bets of a player : his own if he
+	 *         has one, else the one of the table
 	 */
-	public void calculateTotalPot() {
-		for (Player player : this.currentlyPlaying) {
-			this.addBet(player.getBet());
-		}
+	public DecisionSource getDecisionSource(Player player) {
+		return this.decisionSources.getOrDefault(player, this.decisionSource);
 	}
 
 	/**
-	 * Adds a bet to the total betting pot
-	 * 
-	 * @param bet : a bet from a player
+	 * @param decisionSource : asked for the bets of every player that doesn't have
+	 *                       his own
 	 */
-	public void addBet(int bet) {
-		this.totalBets += bet;
+	public void setDecisionSource(DecisionSource decisionSource) {
+		this.decisionSource = decisionSource;
 	}
 
 	/**
-	 * Gives their money to the players that won. If there's a draw between n
-	 * players, splits the pot n ways.
-	 * 
-	 * @param playersThatWon
+	 * @param decisionSource : asked for the bets of <player>, null to use the one
+	 *                       of the table again
 	 */
-	public void endTurn(List<Player> playersThatWon) {
-		int gainSplit = playersThatWon.size();
-		this.calculateTotalPot();
-		for (Player player : playersThatWon) {
-			player.won(this.totalBets / gainSplit);
-			System.out.println(player.getName() + " won " + this.totalBets / gainSplit + " with the hand "
-					+ player.getWinningCombination());
-		}
-		for (Player player : this.currentlyPlaying) {
-
-			if (!playersThatWon.contains(player)) {
-				System.out.println(player.getName() + " lost " + player.getBet() + " with the hand "
-						+ player.getWinningCombination());
-				player.lost();
-			}
-			// reset player fold state for next turn
-			player.setHasNotFolded(true);
-		}
-		kickBrokePlayers();
-		deck.resetDeck();
-		dealer.clear();
-		this.switchBlinds();
-		this.numberOfTurns++;
-		this.totalBets = 0;
-		this.highestBet = 0;
-		if (this.numberOfTurns % this.turnsForBlindIncrease == 0) {
-			increaseBlinds();
+	public void setDecisionSource(Player player, DecisionSource decisionSource) {
+		if (decisionSource == null) {
+			this.decisionSources.remove(player);
+		} else {
+			this.decisionSources.put(player, decisionSource);
 		}
-		clearPots();
-
 	}
 
 	/**
 	 * Resets player fold & raise state
 	 */
 	public void resetPlayersRaise() {
-		for (Player player : this.currentlyPlaying) {
-			player.setCurrentlyRaising(false);
-		}
+		this.seats.clearRaises();
 	}
 
 	public void resetPlayers() {
-		for (Player player : this.currentlyPlaying) {
-			player.setCurrentlyRaising(false);
-			player.setHasNotFolded(true);
-			player.setBet(0);
-		}
+		this.seats.reset();
 	}
 
 	/**
@@ -317,19 +245,18 @@ public class PokerTable {
 	 */
 	public void askBlindPayment() {
 		this.bigBlind.getPlayer().bet(this.bigBlind.getValue());
+		this.listener.bet(this.bigBlind.getPlayer(), this.bigBlind.getPlayer().getBet(), this.highestBet);
 		this.smallBlind.getPlayer().bet(this.smallBlind.getValue());
+		this.listener.bet(this.smallBlind.getPlayer(), this.smallBlind.getPlayer().getBet(), this.highestBet);
 		this.findHighestBet();
 	}
 
 	/**
-	 * Finds the highest bet in the current turn
+	 * Finds the highest bet in the current turn, kept by the <Seats> as bets are
+	 * made
 	 */
 	public void findHighestBet() {
-		for (Player player : this.currentlyPlaying) {
-			if (player.getBet() > this.highestBet) {
-				this.highestBet = player.getBet();
-			}
-		}
+		this.highestBet = Math.max(this.highestBet, this.seats.highestBet());
 	}
 
 	/**
@@ -341,293 +268,211 @@ public class PokerTable {
 	}
 
 	/**
-	 * Used to check if it makes sense to create a new AllIn Pot or not. Creating a
-	 * new AllInPot makes sense if a player is all-in with less chips than other
-	 * players, or if at least 2 more players have the possibility to bet after the
-	 * player we're making a pot for is all-in.
+	 * Same round of bets as <askForBets>. The pots are made once, by <turnPots>.
 	 */
-	public boolean checkIfAnyoneCanStillBet() {
-		int numberOfPlayersStillBetting = this.playerList.size();
-		boolean flag = false;
-		int bet = this.playerList.get(0).getBet();
-		for (Player player : this.playerList) {
-			if (player.isAllIn() || !player.hasNotFolded()) {
-				numberOfPlayersStillBetting--;
-			}
-			if (player.getBet() != bet) {
-				flag = true;
-			}
-		}
-		return numberOfPlayersStillBetting >= 2 || flag;
+	public int askForBetsWithPots(int playersInRound) {
+		return this.round.play();
 	}
-	// pot implementation
-	// -------------------------------------------------------------------
 
-	// we will create a new pot when a player all-ins
+	public void resetTable() {
+		kickBrokePlayers();
+		deck.resetDeck();
+		dealer.clear();
+		showdown.clear();
+		this.switchBlinds();
+		this.numberOfTurns++;
+		this.highestBet = 0;
+		if (this.numberOfTurns % this.turnsForBlindIncrease == 0) {
+			increaseBlinds();
+		}
+		resetPlayers();
+	}
 
 	/**
-	 * Creates a new pot, used for pot initialization of the first pot
+	 * Sends the hand of every player that didn't fold to the <TableListener>
 	 */
-	public void createPot() {
-		this.pots.add(new Pot());
+	public void printAllHands() {
+		for (long inHand = this.seats.inHand(); inHand != 0; inHand &= inHand - 1) {
+			Player player = this.seats.get(Long.numberOfTrailingZeros(inHand));
+			this.listener.showdown(player, player.getPlayerHand().getPlayerHand(), player.getWinningCombination());
+		}
 	}
 
 	/**
-	 * Adds a player to a given pot
-	 * 
-	 * @param player to add
-	 * @param pot    to add to
+	 * Deals the cards of the players and plays every street, waiting for each
+	 * round of bets on the calling thread
 	 */
-	public void addToPot(Player player, Pot pot) {
-		pot.addPlayer(player);
+	public void turnCards() {
+		this.startPreflop();
+		this.askForBetsWithPots(0);
+		this.deal(Street.FLOP);
+		this.askForBetsWithPots(0);
+		this.deal(Street.TURN);
+		this.askForBetsWithPots(0);
+		this.deal(Street.RIVER);
+		this.askForBetsWithPots(0);
 	}
 
 	/**
-	 * Updates a pot's value, to be used when no one is all in (all in players will
-	 * all have their separate pots)
+	 * Deals the cards of the players and takes the blinds
 	 */
-	public void updatePotValue(Pot pot) {
-		// set value to 0 then add every player bet
-		pot.setValue(0);
-		for (Player player : this.currentlyPlaying) {
-			pot.addBet(player.getBet());
-		}
-
+	private void startPreflop() {
+		this.giveCards();
+		this.initializeBlinds();
+		this.askBlindPayment();
+		this.findHighestBet();
+		this.listener.street(Street.PREFLOP, dealer.getDealerHand());
 	}
 
 	/**
-	 * Add every player to the pot, even folded ones
-	 * 
-	 * @param player that needs a new pot because he is all in now
+	 * Deals the cards of the dealer hand a street comes with
 	 */
-	public void makePotForAllInPlayer(Player player) {
-		this.pots.add(new AllInPot(player.getBet(), player));
-		// work on the pot we just created
-		AllInPot pot = (AllInPot) this.pots.get(this.pots.size() - 1);
-		int playerBet = pot.getAllInBet();
-		for (Player playa : this.playerList) {
-			// if a player is all in with less chips, we add his bet value to the pot
-			// else we add the value of the all in player
-			pot.addBet(Math.min(playa.getBet(), playerBet));
-			pot.addPlayer(playa);
+	private void deal(Street street) {
+		switch (street) {
+		case FLOP:
+			dealer.flop();
+			break;
+		case TURN:
+			dealer.turn();
+			break;
+		case RIVER:
+			dealer.river();
+			break;
+		default:
+			return;
 		}
+		this.listener.street(street, dealer.getDealerHand());
 	}
 
 	/**
-	 * Updates an all-in pot with the value that the associated <Player> would win
-	 * if he were to win the pot.
-	 * 
-	 * @param pot : the <AllInPot> associated with the <Player>
+	 * Deals a street, then starts its round of bets
 	 */
-	public void updateAllInPot(AllInPot pot) {
-		pot.setValue(0);
-		for (Player player : this.playerList) {
-			pot.addBet(Math.min(pot.getAllInBet(), player.getBet()));
-		}
+	private CompletableFuture<Integer> startStreet(Street street) {
+		this.deal(street);
+		return this.startBettingRound();
 	}
 
-	public void clearPots() {
-		this.pots.clear();
-	}
-
-	public void updateAllPotsValues() {
-		for (Pot pot : this.pots) {
-			if (pot instanceof AllInPot) {
-				this.updateAllInPot((AllInPot) pot);
-			} else {
-				this.updatePotValue(pot);
-			}
-		}
-	}
-
-	public int askForBetsWithPots(int playersInRound) {
-		boolean everyoneCalled = false;
-		// Implementation of support for constant raising : while
-		// not everyone has called/folded (i.e. there's still a player raising)
-		// We ask every other player for a call/fold/raise
-		while (!everyoneCalled) {
-			for (Player player : this.currentlyPlaying) {
-				// if there's more than one player to ask, player hasn't folded, isn't all in
-				// and isn't the one currently raising,
-				// ask him for bet
-				if (playersInRound > 1 && player.hasNotFolded() && !player.isAllIn() && !player.isCurrentlyRaising()) {
-					System.out.println("Current highest bet is " + this.highestBet);
-					System.out.println(player.getName() + ", you are currently betting " + player.getBet());
-					player.printHand();
-					int answer;
-					do {
-						System.out.println("Press 1 to call, 2 to fold, 3 to raise");
-						answer = scanner.nextInt();
-					} while (answer != 1 && answer != 2 && answer != 3);
-
-					switch (answer) {
-					case 1:
-						player.call(this.highestBet - player.getBet());
-						player.setCurrentlyRaising(false);
-						break;
-					case 2:
-						player.fold();
-						player.setCurrentlyRaising(false);
-						playersInRound--;
-						break;
-					// if a player raises, we set him to currently raising, and all the other
-					// players to not currently raising
-					case 3:
-						System.out.println("How much do you want to raise by? (negative will call!)");
-						int x = scanner.nextInt();
-						if (x > 0) {
-							for (Player aPlayer : this.currentlyPlaying) {
-								// we shouldn't have any weird behaviour
-								// if we use != for comparison, at least for now
-								aPlayer.setCurrentlyRaising(false);
-							}
-							player.setCurrentlyRaising((true));
-							player.bet(this.highestBet - player.getBet() + x);
-						} else {
-							player.call(this.highestBet - player.getBet());
-							player.setCurrentlyRaising(false);
-						}
-						break;
-					}
-				}
-				this.findHighestBet();
-			}
-			// If any player raised during the for loop, there will be at least
-			// a false in the list, so the function will loop again
-			// If no players raised, playersCalled will be empty, so everyoneCalled
-			// will be true.
-			everyoneCalled = true;
-			for (Player player : this.currentlyPlaying) {
-				if (player.getBet() != this.highestBet) {
-					everyoneCalled = false;
-					break;
+	/**
+	 * Pays every pot of the deal. The <SidePotResolver> builds the main pot and
+	 * the side pots in one sweep over the bets kept by the <Seats>, so no pot or
+	 * list of players is made.
+	 */
+	public void turnPots() {
+		// evaluate every hand once, every pot will use these ranks
+		this.showdown.evaluate(this.currentlyPlaying);
+		int size = this.seats.size();
+		if (size > this.ranks.length) {
+			this.ranks = new int[size];
+		}
+		for (int seat = 0; seat < size; seat++) {
+			// seats out of the game didn't bet, they can't win anything
+			this.ranks[seat] = (this.seats.active() >>> seat & 1) != 0 ? this.seats.get(seat).getHandRank() : -1;
+			if (this.pooled && this.ranks[seat] >= 0) {
+				if (this.combinations[seat] == null) {
+					this.combinations[seat] = new WinningCombination(this.ranks[seat]);
 				}
+				this.combinations[seat].setRank(this.ranks[seat]);
+				this.seats.get(seat).setWinCombination(this.combinations[seat]);
 			}
-			makeAllInPotIfNecessary(playersInRound);
-
 		}
-		// reset player raise state for next dealer card
-		this.resetPlayersRaise();
-		return playersInRound;
-	}
-
-	public int makeAllInPotIfNecessary(int playersInRound) {
-		for (Player player : this.currentlyPlaying) {
-
-			if (player.hasNotFolded() && player.isAllIn()) {
-				playersInRound--;
-				if (this.checkIfAnyoneCanStillBet())
-					this.makePotForAllInPlayer(player);
-
+		int layers = this.sidePots.resolve(this.seats.bets(), this.ranks, this.seats.inHand(), size);
+		for (int layer = 0; layer < layers; layer++) {
+			// the first winner, in the order of the seats, gets the chips that can't be
+			// split evenly
+			int share = this.sidePots.getShare(layer) + this.sidePots.getRemainder(layer);
+			for (long winners = this.sidePots.getWinners(layer); winners != 0; winners &= winners - 1) {
+				Player player = this.seats.get(Long.numberOfTrailingZeros(winners));
+				player.won(share);
+				this.listener.payout(player, share, player.getWinningCombination());
+				share = this.sidePots.getShare(layer);
 			}
 		}
-		return playersInRound;
+		// players that showed their hand and won no layer lost their whole bet
+		long losers = this.seats.inHand();
+		for (int layer = 0; layer < layers; layer++) {
+			losers &= ~this.sidePots.getWinners(layer);
+		}
+		for (; losers != 0; losers &= losers - 1) {
+			int seat = Long.numberOfTrailingZeros(losers);
+			Player player = this.seats.get(seat);
+			this.listener.loss(player, this.seats.getBet(seat), player.getWinningCombination());
+		}
 	}
 
 	/**
-	 * A player is still competing for the base pot when he managed to pay through
-	 * every raise without being all in OR if he's all in but with the most chips
+	 * Plays a whole hand on the calling thread, waiting for every decision. This
+	 * is the way for simulations : nothing is allocated by the rounds of bets, see
+	 * <setPooled>. A table whose players decide from elsewhere should use
+	 * <startHand>.
 	 */
-	public void addCompetingPlayersToBasePot() {
-		for (Player player : this.currentlyPlaying) {
-			if (player.hasNotFolded() && player.getBet() >= this.pots.get(0).getThresholdBet()) {
-				this.pots.get(0).addPlayer(player);
-			}
-		}
+	public void startTurnWithPots() {
+		turnCards();
+		this.endHand();
 	}
 
-	public void setThresholdForBasePot() {
-		this.pots.get(0).setThresholdBet(this.highestBet);
+	/**
+	 * Plays a whole hand without holding a thread while players decide. Each round
+	 * of bets is started by <startBettingRound>, and the next street is dealt by
+	 * the thread that completes the last decision of the round before, up to the
+	 * payout of the pots.
+	 * 
+	 * @return a future completed once the pots are paid and the table is ready for
+	 *         the next hand
+	 */
+	public CompletableFuture<Void> startHand() {
+		this.startPreflop();
+		return this.startBettingRound()
+				.thenCompose(playersInRound -> this.startStreet(Street.FLOP))
+				.thenCompose(playersInRound -> this.startStreet(Street.TURN))
+				.thenCompose(playersInRound -> this.startStreet(Street.RIVER))
+				.thenRun(this::endHand);
 	}
 
-	public void resetTable() {
-		kickBrokePlayers();
-		deck.resetDeck();
-		dealer.clear();
-		this.switchBlinds();
-		this.numberOfTurns++;
-		this.totalBets = 0;
-		this.highestBet = 0;
-		if (this.numberOfTurns % this.turnsForBlindIncrease == 0) {
-			increaseBlinds();
-		}
-		clearPots();
-		resetPlayers();
+	/**
+	 * Pays the pots, shows the hands and gets the table ready for the next hand
+	 */
+	private void endHand() {
+		this.turnPots();
+		this.printAllHands();
+		this.resetTable();
 	}
 
-	public void payoutPot(Pot pot) {
-		int value = pot.getValue();
-		if (value <= 0) {
-			return;
-		}
-		List<Player> winners = checkWhoWins(pot.getPlayers());
-		System.out.println( "Winner list: " + winners);
-		int gainSplit = winners.size();
-		for (Player player : winners) {
-			player.won(value / gainSplit);
-			System.out.println(
-					player.getName() + " won " + value / gainSplit + " with hand " + player.getWinningCombination());
-		}
-
-		for (Pot aPot : this.pots) {
-			aPot.setValue(aPot.getValue() - value);
-		}
+	public boolean isPooled() {
+		return this.pooled;
 	}
 
-	public void printAllHands() {
-		for (Player player : this.playerList) {
-			if (player.hasNotFolded()) {
-				System.out.println(player.getName() + " has the hand: " + player.getWinningCombination());
-				player.printHand();
-			}
+	/**
+	 * In a pooled table, the <PlayerHand> and <WinningCombination> of each seat are
+	 * made once and filled again every deal, so with <TableListener.NONE> and
+	 * decision sources that don't allocate, a deal in steady state allocates
+	 * nothing. The hands and combinations given to a listener then change at the
+	 * next deal : a listener that keeps them has to copy them, as
+	 * <AsyncTableListener> does.
+	 * 
+	 * @param pooled : true to reuse the hands and combinations
+	 */
+	public void setPooled(boolean pooled) {
+		this.pooled = pooled;
+		if (pooled && this.hands == null) {
+			this.hands = new PlayerHand[Seats.MAX_SEATS];
+			this.combinations = new WinningCombination[Seats.MAX_SEATS];
 		}
 	}
 
-	public void turnCards() {
-		this.giveCards();
-		this.initializeBlinds();
-		this.askBlindPayment();
-		this.findHighestBet();
-		int playersInRound = currentlyPlaying.size();
-		playersInRound = this.askForBetsWithPots(playersInRound);
-		dealer.flop();
-		dealer.printHand();
-		playersInRound = this.askForBetsWithPots(playersInRound);
-		dealer.turn();
-		dealer.printHand();
-		playersInRound = this.askForBetsWithPots(playersInRound);
-		dealer.river();
-		dealer.printHand();
-		this.askForBetsWithPots(playersInRound);
+	public TableListener getListener() {
+		return this.listener;
 	}
 
-	public void turnPots() {
-		createPot();
-		makeAllInPotIfNecessary(0);
-		this.updateAllPotsValues();
-		// find highest bet (useful for unit testing)
-		this.findHighestBet();
-		// threshold for base pot is the highest bet
-		this.setThresholdForBasePot();
-		// only players that have paid the threshold bet will be added to base pot
-		this.addCompetingPlayersToBasePot();
-		// sort the pots by increasing order
-		this.pots.sort(null);
-		/*
-		 * for (int i = 0;i<this.pots.size();i++) { System.out.println("i=" +i + " "
-		 * +this.pots.get(i)); }
-		 */
-		for (int i = 0; i < this.pots.size(); i++) {
-			payoutPot(this.pots.get(i));
-		}
+	/**
+	 * @param listener : receives what happens at the table, <TableListener.NONE>
+	 *                 for simulations
+	 */
+	public void setListener(TableListener listener) {
+		this.listener = listener;
 	}
 
-	public void startTurnWithPots() {
-		turnCards();
-		turnPots();
-		this.printAllHands();
-		this.getDealer().printHand();
-		this.resetTable();
+	public Deck getDeck() {
+		return this.deck;
 	}
 
 	public DealerHand getDealer() {
@@ -638,4 +483,8 @@ public class PokerTable {
 		return this.currentlyPlaying;
 	}
 
+	public Seats getSeats() {
+		return this.seats;
+	}
+
 }
@@ -0,0 +1,218 @@
+package classes;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The seats of a <PokerTable>, where the state of the players is kept while
+ * they sit at it. A player keeps the seat he sat at for as long as he's at the
+ * table. Bets and chip stacks are arrays indexed by seat, and the rest is kept
+ * in bitmasks, one bit per seat : the seats still in the game, and those that
+ * folded, are all in or made the last raise.
+ *
+ * A seated <Player> reads and writes his chips, bet, fold and raise here, so
+ * the bitmasks are always up to date, and going through the players or
+ * checking who can still bet are operations on them.
+ */
+public class Seats {
+	/**
+	 * Most players a table can seat, one bit per seat
+	 */
+	public static final int MAX_SEATS = 64;
+
+	private Player[] players = new Player[10];
+	private int[] bets = new int[10];
+	private int[] stacks = new int[10];
+	private int size;
+	// seats of the players that still have chips
+	private long active;
+	private long folded;
+	// seats with no chips left
+	private long allIn;
+	private long raising;
+	// highest bet since the last <reset>
+	private int highestBet;
+
+	/**
+	 * Seats a player at the next free seat, his state moves to the seat
+	 *
+	 * @return his seat
+	 */
+	int add(Player player) {
+		if (this.size == MAX_SEATS) {
+			throw new IllegalArgumentException("A table has at most " + MAX_SEATS + " seats");
+		}
+		if (this.size == this.players.length) {
+			int length = Math.min(MAX_SEATS, this.size * 2);
+			this.players = Arrays.copyOf(this.players, length);
+			this.bets = Arrays.copyOf(this.bets, length);
+			this.stacks = Arrays.copyOf(this.stacks, length);
+		}
+		int seat = this.size++;
+		this.players[seat] = player;
+		this.setBet(seat, player.getBet());
+		this.setStack(seat, player.getChipStack());
+		this.setFolded(seat, !player.hasNotFolded());
+		this.setRaising(seat, player.isCurrentlyRaising());
+		if (player.getChipStack() > 0) {
+			this.active |= 1L << seat;
+		}
+		player.sitAt(this, seat);
+		return seat;
+	}
+
+	void setBet(int seat, int bet) {
+		this.bets[seat] = bet;
+		this.highestBet = Math.max(this.highestBet, bet);
+	}
+
+	void setStack(int seat, int stack) {
+		this.stacks[seat] = stack;
+		this.allIn = stack == 0 ? this.allIn | 1L << seat : this.allIn & ~(1L << seat);
+	}
+
+	void setFolded(int seat, boolean folded) {
+		this.folded = folded ? this.folded | 1L << seat : this.folded & ~(1L << seat);
+	}
+
+	void setRaising(int seat, boolean raising) {
+		this.raising = raising ? this.raising | 1L << seat : this.raising & ~(1L << seat);
+	}
+
+	boolean isFolded(int seat) {
+		return (this.folded >>> seat & 1) != 0;
+	}
+
+	boolean isRaising(int seat) {
+		return (this.raising >>> seat & 1) != 0;
+	}
+
+	/**
+	 * Takes the players with no chips left out of the game. What they bet is
+	 * already paid out, so their bets go back to 0.
+	 *
+	 * @return the seats that were taken out, 0 if none
+	 */
+	long kickBroke() {
+		long broke = this.active & this.allIn;
+		for (long seats = broke; seats != 0; seats &= seats - 1) {
+			int seat = Long.numberOfTrailingZeros(seats);
+			this.players[seat].setPlaying(false);
+			this.bets[seat] = 0;
+		}
+		this.active &= ~broke;
+		return broke;
+	}
+
+	/**
+	 * Forgets the raise of every seat
+	 */
+	void clearRaises() {
+		this.raising = 0;
+	}
+
+	/**
+	 * Gets the seats ready for a new deal : no bet, no fold, no raise
+	 */
+	void reset() {
+		Arrays.fill(this.bets, 0, this.size, 0);
+		this.folded = 0;
+		this.raising = 0;
+		this.highestBet = 0;
+	}
+
+	/**
+	 * Fills a list with the players of some seats, in the order of the seats
+	 */
+	void playersOf(long seats, List<Player> players) {
+		players.clear();
+		for (; seats != 0; seats &= seats - 1) {
+			players.add(this.players[Long.numberOfTrailingZeros(seats)]);
+		}
+	}
+
+	/**
+	 * @return the first seat of <seats> from <seat> on, going back to the first
+	 *         seat after the last one, -1 if <seats> is empty
+	 */
+	public static int next(long seats, int seat) {
+		if (seats == 0) {
+			return -1;
+		}
+		long after = seat >= MAX_SEATS ? 0 : seats & -1L << seat;
+		return Long.numberOfTrailingZeros(after != 0 ? after : seats);
+	}
+
+	/**
+	 * @return the seat of a player, -1 if he's not at the table
+	 */
+	public int seatOf(Player player) {
+		return player.getSeats() == this ? player.getSeat() : -1;
+	}
+
+	/**
+	 * @return the highest bet since the last deal started
+	 */
+	public int highestBet() {
+		return this.highestBet;
+	}
+
+	public Player get(int seat) {
+		return this.players[seat];
+	}
+
+	/**
+	 * @return the number of seats taken, by players still in the game or not
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	public int getBet(int seat) {
+		return this.bets[seat];
+	}
+
+	public int getStack(int seat) {
+		return this.stacks[seat];
+	}
+
+	/**
+	 * @return the bets of every seat, indexed by seat, not to be changed
+	 */
+	int[] bets() {
+		return this.bets;
+	}
+
+	/**
+	 * @return the seats of the players that still have chips
+	 */
+	public long active() {
+		return this.active;
+	}
+
+	/**
+	 * @return the seats still in the hand : in the game and not folded
+	 */
+	public long inHand() {
+		return this.active & ~this.folded;
+	}
+
+	/**
+	 * @return the seats that can still bet : in the hand and not all in
+	 */
+	public long betting() {
+		return this.active & ~this.folded & ~this.allIn;
+	}
+
+	public long folded() {
+		return this.active & this.folded;
+	}
+
+	public long allIn() {
+		return this.active & this.allIn;
+	}
+
+	public long raising() {
+		return this.active & this.raising;
+	}
+}
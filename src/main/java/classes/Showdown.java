@@ -0,0 +1,72 @@
+package classes;
+
+import java.util.Arrays;
+import java.util.List;
+
+import logic.BitmaskEvaluator;
+import logic.WinConditionLogic;
+
+/**
+ * The ranks of the hands of the current deal. Every hand is evaluated once, with
+ * the dealer hand digested once for the whole table, and each <Player> gets the
+ * rank of his hand. <PokerTable.turnPots> then gives these ranks to the
+ * <SidePotResolver>, which picks the winners of every pot from them.
+ */
+public class Showdown {
+	private final DealerHand dealer;
+	private long[] playerCards = new long[10];
+	private int[] ranks = new int[10];
+	private int size;
+
+	public Showdown(DealerHand dealer) {
+		this.dealer = dealer;
+	}
+
+	/**
+	 * Evaluates the hands of every player, to be called once the dealer hand is
+	 * complete.
+	 *
+	 * @param players : the players of the deal
+	 */
+	public void evaluate(List<Player> players) {
+		int count = players.size();
+		if (count > this.ranks.length) {
+			this.playerCards = Arrays.copyOf(this.playerCards, count);
+			this.ranks = Arrays.copyOf(this.ranks, count);
+		}
+		for (int i = 0; i < count; i++) {
+			this.playerCards[i] = BitmaskEvaluator.cardMask(players.get(i).getPlayerHand().getPlayerHand());
+		}
+		// the dealer hand is digested once for the whole table
+		WinConditionLogic.findHandRanks(this.dealer, this.playerCards, count, this.ranks);
+		for (int i = 0; i < count; i++) {
+			players.get(i).setHandRank(this.ranks[i]);
+		}
+		this.size = count;
+	}
+
+	/**
+	 * @param i : the index of a player in the list given to <evaluate>
+	 * @return the rank of his hand, as packed by <WinningCombination>
+	 */
+	public int getRank(int i) {
+		if (i >= this.size) {
+			throw new IndexOutOfBoundsException("Only " + this.size + " hands were evaluated");
+		}
+		return this.ranks[i];
+	}
+
+	/**
+	 * @return the number of hands evaluated since the last <clear>
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Forgets every rank, to be called when a new deal starts
+	 */
+	public void clear() {
+		this.size = 0;
+	}
+}
@@ -0,0 +1,133 @@
+package classes;
+
+import java.util.Arrays;
+
+/**
+ * Splits the bets of a deal into pot layers and finds the winners of each
+ * layer, in one sweep over the seats sorted by contribution.
+ *
+ * Seats are numbered from 0 to 63 and sets of seats are bitmasks. Each distinct
+ * contribution closes a layer : the main pot is what every seat paid up to the
+ * smallest contribution, and each side pot is the difference with the next one,
+ * paid by the seats that put in at least that much. A seat competes for every
+ * layer it paid into. Seats that folded can't win a layer, unless every seat
+ * that paid into it folded, in which case the best hand among them takes it
+ * back.
+ *
+ * The buffers are kept between deals, resolving a deal doesn't allocate once
+ * the table has seen its biggest number of seats.
+ */
+public class SidePotResolver {
+	/**
+	 * Most seats a deal can have, one bit per seat
+	 */
+	public static final int MAX_SEATS = 64;
+	// a folded seat only wins against folded seats
+	private static final long NOT_FOLDED = 1L << 32;
+
+	// contribution << 6 | seat, sorted once
+	private long[] sorted = new long[10];
+	// winners of the seats sorted from i to the end
+	private long[] suffixWinners = new long[10];
+	private int[] layerValues = new int[10];
+	private long[] layerWinners = new long[10];
+	private int layers;
+
+	/**
+	 * Builds the pot layers of a deal.
+	 *
+	 * @param contributions : the chips each seat put in during the deal
+	 * @param ranks         : the rank of each seat's hand, as packed by
+	 *                      <WinningCombination>
+	 * @param inHand        : bitmask of the seats that didn't fold
+	 * @param seats         : number of seats, the first ones of the arrays
+	 * @return the number of layers that hold chips
+	 */
+	public int resolve(int[] contributions, int[] ranks, long inHand, int seats) {
+		if (seats > MAX_SEATS) {
+			throw new IllegalArgumentException("At most " + MAX_SEATS + " seats, not " + seats);
+		}
+		this.ensureCapacity(seats);
+		for (int seat = 0; seat < seats; seat++) {
+			this.sorted[seat] = (long) contributions[seat] << 6 | seat;
+		}
+		Arrays.sort(this.sorted, 0, seats);
+		// from the biggest contribution down, the best hands of the seats that paid
+		// at least that much
+		long best = -1;
+		long winners = 0;
+		for (int i = seats - 1; i >= 0; i--) {
+			int seat = (int) this.sorted[i] & 63;
+			// + 1 so a hand that was never ranked, -1, still sorts last
+			long key = ((inHand >>> seat & 1) == 0 ? 0 : NOT_FOLDED) | ranks[seat] + 1L;
+			if (key > best) {
+				best = key;
+				winners = 1L << seat;
+			} else if (key == best) {
+				winners |= 1L << seat;
+			}
+			this.suffixWinners[i] = winners;
+		}
+		this.layers = 0;
+		int previous = 0;
+		for (int i = 0; i < seats; i++) {
+			int level = (int) (this.sorted[i] >>> 6);
+			if (level == previous) {
+				continue;
+			}
+			// every seat from i on paid up to this level
+			this.layerValues[this.layers] = (level - previous) * (seats - i);
+			this.layerWinners[this.layers] = this.suffixWinners[i];
+			this.layers++;
+			previous = level;
+		}
+		return this.layers;
+	}
+
+	/**
+	 * @return the number of layers found by the last <resolve>
+	 */
+	public int getLayers() {
+		return this.layers;
+	}
+
+	/**
+	 * @param layer : 0 for the main pot, then the side pots
+	 * @return the chips in the layer
+	 */
+	public int getValue(int layer) {
+		return this.layerValues[layer];
+	}
+
+	/**
+	 * @return bitmask of the seats that split the layer
+	 */
+	public long getWinners(int layer) {
+		return this.layerWinners[layer];
+	}
+
+	/**
+	 * @return what each winner of the layer gets, see <getRemainder> for the
+	 *         chips that can't be split evenly
+	 */
+	public int getShare(int layer) {
+		return this.layerValues[layer] / Long.bitCount(this.layerWinners[layer]);
+	}
+
+	/**
+	 * @return the chips of the layer left once every winner got his share, that
+	 *         go to the winner with the lowest seat
+	 */
+	public int getRemainder(int layer) {
+		return this.layerValues[layer] % Long.bitCount(this.layerWinners[layer]);
+	}
+
+	private void ensureCapacity(int seats) {
+		if (seats > this.sorted.length) {
+			this.sorted = new long[seats];
+			this.suffixWinners = new long[seats];
+			this.layerValues = new int[seats];
+			this.layerWinners = new long[seats];
+		}
+	}
+}
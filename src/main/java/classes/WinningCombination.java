@@ -1,41 +1,104 @@
 package classes;
 
+/**
+ * A WinningCombination is a view of a hand rank : a single int where higher is
+ * better. The <WinCondition> is stored in bits 20 to 23, followed by five
+ * <CardValue> of 4 bits each : first the values of the combination (the three
+ * of a kind then the pair of a full house, the highest then the lowest pair of
+ * two pairs...), then the kickers. Comparing two ranks compares the whole hand.
+ */
 public class WinningCombination implements Comparable<WinningCombination> {
-	private WinCondition winCondition;
-	private CardValue cardValue;
-	
-	
-	public WinningCombination(WinCondition wc,CardValue cv) {
-		this.winCondition=wc;
-		this.cardValue=cv;
+	public static final int CONDITION_SHIFT = 20;
+	private static final WinCondition[] CONDITIONS = WinCondition.values();
+	private static final CardValue[] VALUES = CardValue.values();
+
+	private int rank;
+
+	public WinningCombination(int rank) {
+		this.rank = rank;
+	}
+
+	public WinningCombination(WinCondition wc, CardValue cv) {
+		this(rank(wc, cv));
+	}
+
+	/**
+	 * Packs a rank
+	 *
+	 * @param wc     : the <WinCondition>
+	 * @param values : up to 5 values, most important first
+	 * @return the packed rank
+	 */
+	public static int rank(WinCondition wc, CardValue... values) {
+		int rank = wc.ordinal();
+		for (int i = 0; i < 5; i++) {
+			rank <<= 4;
+			if (i < values.length && values[i] != null) {
+				rank |= values[i].ordinal();
+			}
+		}
+		return rank;
 	}
+
 	@Override
 	public int compareTo(WinningCombination wc) {
-		// TODO Auto-generated method stub
-		if (this.winCondition.compareTo(wc.winCondition)>0) {
-			return 1;
-		}
-		if (this.winCondition.compareTo(wc.winCondition)==0) {
-			return this.cardValue.compare(wc.cardValue);
-		}
-		return -1;
+		return Integer.compare(this.rank, wc.rank);
+	}
+
+	public int getRank() {
+		return rank;
+	}
+
+	/**
+	 * @param rank : a packed rank, for a combination that is reused from hand to
+	 *             hand
+	 */
+	public void setRank(int rank) {
+		this.rank = rank;
 	}
+
 	public WinCondition getWinCondition() {
-		return winCondition;
+		return CONDITIONS[this.rank >>> CONDITION_SHIFT];
 	}
+
 	public void setWinCondition(WinCondition winCondition) {
-		this.winCondition = winCondition;
+		this.rank = winCondition.ordinal() << CONDITION_SHIFT | (this.rank & ((1 << CONDITION_SHIFT) - 1));
 	}
+
+	/**
+	 * @return the highest value of the combination : the value of the pair, the
+	 *         highest card of the straight...
+	 */
 	public CardValue getCardValue() {
-		return cardValue;
+		return getCardValue(0);
 	}
+
+	/**
+	 * @param index : 0 to 4, the values of the combination come first, then the
+	 *              kickers
+	 * @return the value at that index
+	 */
+	public CardValue getCardValue(int index) {
+		return VALUES[(this.rank >>> (16 - 4 * index)) & 15];
+	}
+
 	public void setCardValue(CardValue cardValue) {
-		this.cardValue = cardValue;
+		this.rank = (this.rank & ~(15 << 16)) | cardValue.ordinal() << 16;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof WinningCombination && ((WinningCombination) o).rank == this.rank;
 	}
-	
+
+	@Override
+	public int hashCode() {
+		return this.rank;
+	}
+
 	@Override
 	public String toString() {
-		return this.cardValue +" " + this.winCondition;
+		return this.getCardValue() + " " + this.getWinCondition();
 	}
-	
+
 }
@@ -0,0 +1,78 @@
+package equity;
+
+import classes.Card;
+
+/**
+ * Numbering of the combinations of k elements among n in colexicographic
+ * order, used to go through boards by index.
+ */
+final class Combinations {
+	// choose(n, k) for the sizes of boards and hands
+	private static final long[][] BINOMIALS = new long[Card.COUNT + 1][6];
+
+	static {
+		for (int n = 0; n <= Card.COUNT; n++) {
+			BINOMIALS[n][0] = 1;
+			for (int k = 1; k < 6 && k <= n; k++) {
+				BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + (k < n ? BINOMIALS[n - 1][k] : 0);
+			}
+		}
+	}
+
+	private Combinations() {
+	}
+
+	/**
+	 * @return the number of ways to pick k elements among n
+	 */
+	static long choose(int n, int k) {
+		if (k < 0 || k > n) {
+			return 0;
+		}
+		if (n < BINOMIALS.length && k < BINOMIALS[n].length) {
+			return BINOMIALS[n][k];
+		}
+		long result = 1;
+		for (int i = 1; i <= k; i++) {
+			result = result * (n - k + i) / i;
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the combination numbered <rank> in colexicographic order : the
+	 * combination c[0] < c[1] < ... such that rank is the sum of choose(c[i], i + 1)
+	 *
+	 * @param combination : receives the combination
+	 */
+	static void unrank(long rank, int[] combination) {
+		for (int i = combination.length; i > 0; i--) {
+			int c = i - 1;
+			while (choose(c + 1, i) <= rank) {
+				c++;
+			}
+			combination[i - 1] = c;
+			rank -= choose(c, i);
+		}
+	}
+
+	/**
+	 * Steps to the next combination in colexicographic order : the lowest element
+	 * that can move up does, and the ones below it go back to the bottom.
+	 *
+	 * @param n : the number of elements to pick from
+	 */
+	static void next(int[] combination, int n) {
+		int k = combination.length;
+		for (int i = 0; i < k; i++) {
+			int limit = i + 1 < k ? combination[i + 1] : n;
+			if (combination[i] + 1 < limit) {
+				combination[i]++;
+				for (int j = 0; j < i; j++) {
+					combination[j] = j;
+				}
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,569 @@
+package equity;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+import classes.Card;
+import classes.CardColor;
+import classes.CardValue;
+import classes.DealerHand;
+import classes.Deck;
+import classes.PlayerHand;
+import logic.WinConditionLogic;
+
+/**
+ * Finds the equity of known hole cards against opponents whose cards are known
+ * or not, on a board that may already be partly known. <calculate> deals the
+ * rest of the hand at random many times : Monte Carlo sampling. <enumerate>
+ * deals every possible rest of the hand once, when there is at most one
+ * opponent with unknown cards, and gives the exact equity.
+ *
+ * Sampling is split between workers run by a parallel stream. Each worker has
+ * its own <Deck>, split from the deck of the calculator so a seed always gives
+ * the same result, its own <DealerHand> and its own buffers, and counts its
+ * samples in a result of its own. The results are merged at the end, so workers
+ * never share anything while sampling. A sample doesn't allocate : the deck is
+ * rewound, the board is dealt in the dealer hand, and every hand is ranked with
+ * one call to <WinConditionLogic.findHandRanks>.
+ *
+ * The runouts can be picked by a <SamplingMode> that lowers the variance of the
+ * equity. The samples of a mode are then dealt in independent units (a pair of
+ * antithetic samples, a pass over every stratum, a shifted sequence), which are
+ * given to the workers like samples.
+ *
+ * The adaptive <calculate> samples in batches until the standard error is low
+ * enough or the time is up. After each batch, a worker adds its sums to a
+ * <RunningEquity> shared with the other workers, and checks whether the run is
+ * over.
+ *
+ * Enumeration works the same way on ranges of combination indices : the
+ * possible boards are numbered in colexicographic order, every range is given
+ * to a worker that unranks its first board, then steps to the next board in
+ * place.
+ */
+public class EquityCalculator {
+	// samples dealt by a worker of an adaptive run between two checks
+	private static final int BATCH = 1024;
+	// samples needed before trusting the standard error
+	private static final int MIN_SAMPLES = 1000;
+	// number of shifted sequences of a QUASI_RANDOM run
+	private static final int REPLICATES = 16;
+	// step of the Kronecker sequence : the golden ratio, the most irrational
+	// number
+	private static final double GOLDEN_STEP = 0.6180339887498949;
+	private final Card[] holeCards;
+	private final Card[] board;
+	// number of opponents with unknown cards
+	private final int opponents;
+	// masks of the opponents with known cards
+	private long[] knownOpponents = new long[0];
+	private long knownCards;
+	private RandomGenerator random = new SplittableRandom();
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+	private SamplingMode samplingMode = SamplingMode.UNIFORM;
+
+	/**
+	 * @param holeCards : the 2 cards of the hand
+	 * @param board     : the known cards of the dealer hand, 0 to 5
+	 * @param opponents : number of opponents with random cards, 0 to 9. Opponents
+	 *                  with known cards are added with <addOpponent>
+	 */
+	public EquityCalculator(List<Card> holeCards, List<Card> board, int opponents) {
+		if (holeCards.size() != 2) {
+			throw new IllegalArgumentException("A hand has 2 cards, not " + holeCards.size());
+		}
+		if (board.size() > 5) {
+			throw new IllegalArgumentException("A board has at most 5 cards, not " + board.size());
+		}
+		if (opponents < 0 || opponents > 9) {
+			throw new IllegalArgumentException("There must be 0 to 9 opponents, not " + opponents);
+		}
+		this.holeCards = holeCards.toArray(new Card[0]);
+		this.board = board.toArray(new Card[0]);
+		this.opponents = opponents;
+		this.addKnownCards(holeCards);
+		this.addKnownCards(board);
+	}
+
+	/**
+	 * @param playerHand : the cards of the player
+	 * @param dealerHand : the cards of the dealer known so far
+	 * @param opponents  : number of opponents with random cards, 0 to 9
+	 */
+	public EquityCalculator(PlayerHand playerHand, DealerHand dealerHand, int opponents) {
+		this(playerHand.getPlayerHand(), dealerHand.getDealerHand(), opponents);
+	}
+
+	/**
+	 * @param random : gives the decks of the workers, the same seed gives the same
+	 *               result with the same parallelism
+	 */
+	public EquityCalculator setRandom(RandomGenerator random) {
+		this.random = random;
+		return this;
+	}
+
+	public EquityCalculator setSeed(long seed) {
+		return this.setRandom(new SplittableRandom(seed));
+	}
+
+	/**
+	 * @param parallelism : number of workers, by default the number of cores
+	 */
+	public EquityCalculator setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Adds an opponent whose cards are known
+	 *
+	 * @param holeCards : the 2 cards of the opponent
+	 */
+	public EquityCalculator addOpponent(List<Card> holeCards) {
+		if (holeCards.size() != 2) {
+			throw new IllegalArgumentException("A hand has 2 cards, not " + holeCards.size());
+		}
+		if (this.players() == 10) {
+			throw new IllegalArgumentException("There can't be more than 10 players");
+		}
+		this.addKnownCards(holeCards);
+		this.knownOpponents = Arrays.copyOf(this.knownOpponents, this.knownOpponents.length + 1);
+		this.knownOpponents[this.knownOpponents.length - 1] = holeCards.get(0).getMask() | holeCards.get(1).getMask();
+		return this;
+	}
+
+	/**
+	 * @param samplingMode : how <calculate(long)> picks the runouts. The adaptive
+	 *                     <calculate> always samples uniformly
+	 */
+	public EquityCalculator setSamplingMode(SamplingMode samplingMode) {
+		this.samplingMode = samplingMode;
+		return this;
+	}
+
+	/**
+	 * @return the number of opponents with random cards
+	 */
+	public int getOpponents() {
+		return opponents;
+	}
+
+	/**
+	 * @return the number of runouts <enumerate> goes through : every board, times
+	 *         every hand of the opponent with unknown cards if there is one
+	 */
+	public long getEnumerationSize() {
+		int unknown = Card.COUNT - Long.bitCount(this.knownCards);
+		long boards = Combinations.choose(unknown, 5 - this.board.length);
+		return this.opponents == 0 ? boards : boards * Combinations.choose(unknown - 5 + this.board.length, 2);
+	}
+
+	/**
+	 * Deals the rest of the hand <samples> times, with the <SamplingMode> of the
+	 * calculator. The modes deal whole units of samples, so a few more samples
+	 * than asked may be dealt.
+	 *
+	 * @param samples : number of runouts to deal
+	 * @return the wins, ties and losses of the hole cards
+	 */
+	public EquityResult calculate(long samples) {
+		this.checkPlayers();
+		int[] unknown = this.unknownCards();
+		SamplingMode mode = this.samplingMode;
+		if (this.board.length == 5 && (this.opponents == 0 || mode == SamplingMode.QUASI_RANDOM)) {
+			// nothing is random, or there's no board to pick
+			mode = SamplingMode.UNIFORM;
+		}
+		long unitSize;
+		switch (mode) {
+		case STRATIFIED:
+			unitSize = unknown.length;
+			break;
+		case ANTITHETIC:
+			unitSize = 2;
+			break;
+		case QUASI_RANDOM:
+			unitSize = Math.max(1, (samples + REPLICATES - 1) / REPLICATES);
+			break;
+		default:
+			unitSize = 1;
+		}
+		long units = mode == SamplingMode.QUASI_RANDOM ? REPLICATES : Math.max(1, (samples + unitSize - 1) / unitSize);
+		int workers = (int) Math.min(this.parallelism, units);
+		// decks and shifts are drawn before starting, so the result doesn't depend
+		// on the order the workers run in
+		Deck deck = new Deck(this.random);
+		Deck[] decks = new Deck[workers];
+		for (int i = 0; i < workers; i++) {
+			decks[i] = deck.split();
+		}
+		double[] shifts = new double[REPLICATES];
+		for (int i = 0; i < REPLICATES; i++) {
+			shifts[i] = this.random.nextDouble();
+		}
+		int[] mirror = this.mirror(unknown);
+		SamplingMode workerMode = mode;
+		long start = System.nanoTime();
+		Tally tally = IntStream.range(0, workers).parallel().mapToObj(i -> {
+			Sampler sampler = new Sampler(decks[i], unknown, mirror);
+			Tally workerTally = new Tally();
+			for (long unit = units * i / workers; unit < units * (i + 1) / workers; unit++) {
+				switch (workerMode) {
+				case STRATIFIED:
+					workerTally.addUnit(sampler.stratified(workerTally));
+					break;
+				case ANTITHETIC:
+					workerTally.addUnit(sampler.antithetic(workerTally));
+					break;
+				case QUASI_RANDOM:
+					workerTally.addUnit(sampler.quasiRandom(shifts[(int) unit], unitSize, workerTally));
+					break;
+				default:
+					sampler.uniform(workerTally);
+				}
+			}
+			return workerTally;
+		}).reduce((a, b) -> {
+			a.add(b);
+			return a;
+		}).get();
+		return tally.toResult(System.nanoTime() - start);
+	}
+
+	/**
+	 * Deals the rest of the hand until the standard error of the equity is at
+	 * most <standardError>, or the time is up. Since the workers run at their own
+	 * pace, the number of samples and the result are not reproducible from a
+	 * seed.
+	 *
+	 * @param standardError : the standard error to reach, 0 to only stop when the
+	 *                      time is up
+	 * @param budget        : the longest the run may take. The run may overshoot
+	 *                      it by the time of a batch, a fraction of a millisecond
+	 * @return the wins, ties and losses of the hole cards, with the standard error
+	 *         and the confidence interval reached
+	 */
+	public EquityResult calculate(double standardError, Duration budget) {
+		this.checkPlayers();
+		long start = System.nanoTime();
+		long deadline = start + budget.toNanos();
+		int[] unknown = this.unknownCards();
+		Deck deck = new Deck(this.random);
+		Deck[] decks = new Deck[this.parallelism];
+		for (int i = 0; i < decks.length; i++) {
+			decks[i] = deck.split();
+		}
+		RunningEquity running = new RunningEquity();
+		EquityResult result = IntStream.range(0, decks.length).parallel().mapToObj(i -> {
+			long workerStart = System.nanoTime();
+			Sampler sampler = new Sampler(decks[i], unknown, null);
+			Tally total = new Tally();
+			Tally batch = new Tally();
+			while (!running.isStopped()) {
+				batch.clear();
+				for (int sample = 0; sample < BATCH; sample++) {
+					sampler.uniform(batch);
+				}
+				total.add(batch);
+				running.add(batch);
+				if (System.nanoTime() - deadline >= 0 || (running.getSamples() >= MIN_SAMPLES
+						&& running.getStandardError() <= standardError)) {
+					running.stop();
+				}
+			}
+			return total.toResult(System.nanoTime() - workerStart);
+		}).reduce(EquityResult::merge).get();
+		return result.withNanos(System.nanoTime() - start);
+	}
+
+	/**
+	 * Deals every possible rest of the hand once
+	 *
+	 * @return the exact wins, ties and losses of the hole cards
+	 */
+	public EquityResult enumerate() {
+		this.checkPlayers();
+		if (this.opponents > 1) {
+			throw new IllegalStateException("Can't enumerate the hands of " + this.opponents + " unknown opponents");
+		}
+		int[] unknown = this.unknownCards();
+		long boards = Combinations.choose(unknown.length, 5 - this.board.length);
+		// more ranges than workers, so a slow range doesn't keep the others waiting
+		int ranges = (int) Math.min(boards, this.parallelism * 8L);
+		long start = System.nanoTime();
+		EquityResult result = IntStream.range(0, ranges).parallel()
+				.mapToObj(i -> this.enumerate(unknown, boards * i / ranges, boards * (i + 1) / ranges))
+				.reduce(EquityResult::merge).get();
+		return result.withNanos(System.nanoTime() - start);
+	}
+
+	/**
+	 * The loop of a worker of <enumerate>, going through the boards numbered
+	 * <from> to <to> excluded
+	 *
+	 * @param unknown : indexes of the cards that are not known
+	 */
+	private EquityResult enumerate(int[] unknown, long from, long to) {
+		long start = System.nanoTime();
+		// the board is dealt by hand, the dealer hand doesn't need a deck
+		DealerHand dealer = new DealerHand(null);
+		int players = this.players();
+		long[] playerCards = this.knownPlayerCards();
+		int[] ranks = new int[players];
+		int known = players - this.opponents;
+		long[] opponentCards = new long[1];
+		int[] opponentRank = new int[1];
+		Tally tally = new Tally();
+		int[] combination = new int[5 - this.board.length];
+		Combinations.unrank(from, combination);
+		for (long index = from; index < to; index++) {
+			dealer.clear();
+			for (int i = 0; i < this.board.length; i++) {
+				dealer.addToDealerHand(this.board[i]);
+			}
+			for (int i = 0; i < combination.length; i++) {
+				dealer.addToDealerHand(Card.get(unknown[combination[i]]));
+			}
+			WinConditionLogic.findHandRanks(dealer, playerCards, known, ranks);
+			if (this.opponents == 0) {
+				tally.add(ranks, players);
+			} else {
+				long used = dealer.getCardMask();
+				for (int a = 0; a < unknown.length; a++) {
+					long first = Card.get(unknown[a]).getMask();
+					if ((used & first) != 0) {
+						continue;
+					}
+					for (int b = a + 1; b < unknown.length; b++) {
+						long second = Card.get(unknown[b]).getMask();
+						if ((used & second) != 0) {
+							continue;
+						}
+						opponentCards[0] = first | second;
+						WinConditionLogic.findHandRanks(dealer, opponentCards, 1, opponentRank);
+						ranks[known] = opponentRank[0];
+						tally.add(ranks, players);
+					}
+				}
+			}
+			Combinations.next(combination, unknown.length);
+		}
+		return tally.toResult(System.nanoTime() - start);
+	}
+
+	/**
+	 * A worker of <calculate>, with its own deck, dealer hand and buffers
+	 */
+	private class Sampler {
+		private final Deck deck;
+		private final DealerHand dealer;
+		private final int players = EquityCalculator.this.players();
+		private final long[] playerCards = EquityCalculator.this.knownPlayerCards();
+		private final int[] ranks = new int[this.players];
+		private final int known = this.players - EquityCalculator.this.opponents;
+		// size of the deck once the known cards are out
+		private final int mark;
+		private final int[] unknown;
+		private final int[] mirror;
+		// the random cards of a sample : the missing cards of the board, then the
+		// cards of the unknown opponents
+		private final int[] runout;
+		private final int[] mirrored;
+		private final int[] combination = new int[5 - EquityCalculator.this.board.length];
+
+		/**
+		 * @param unknown : indexes of the cards that are not known
+		 * @param mirror  : the antithetic card of each card, null if not needed
+		 */
+		Sampler(Deck deck, int[] unknown, int[] mirror) {
+			this.deck = deck;
+			this.dealer = new DealerHand(deck);
+			for (int card = 0; card < Card.COUNT; card++) {
+				if ((EquityCalculator.this.knownCards & Card.get(card).getMask()) != 0) {
+					deck.remove(Card.get(card));
+				}
+			}
+			this.mark = deck.size();
+			this.unknown = unknown;
+			this.mirror = mirror;
+			this.runout = new int[this.combination.length + 2 * EquityCalculator.this.opponents];
+			this.mirrored = new int[this.runout.length];
+		}
+
+		/**
+		 * Deals a random runout
+		 *
+		 * @return the share of the pot won by the hole cards
+		 */
+		double uniform(Tally tally) {
+			this.deck.rewind(this.mark);
+			this.draw(0);
+			return this.evaluate(this.runout, tally);
+		}
+
+		/**
+		 * Deals a random runout and its mirror
+		 *
+		 * @return the mean share won by the two runouts
+		 */
+		double antithetic(Tally tally) {
+			double share = this.uniform(tally);
+			for (int i = 0; i < this.runout.length; i++) {
+				this.mirrored[i] = this.mirror[this.runout[i]];
+			}
+			return (share + this.evaluate(this.mirrored, tally)) / 2;
+		}
+
+		/**
+		 * Deals a runout starting with each unknown card
+		 *
+		 * @return the mean share won by the runouts
+		 */
+		double stratified(Tally tally) {
+			double share = 0;
+			for (int i = 0; i < this.unknown.length; i++) {
+				this.deck.rewind(this.mark);
+				this.runout[0] = this.unknown[i];
+				this.deck.remove(Card.get(this.unknown[i]));
+				this.draw(1);
+				share += this.evaluate(this.runout, tally);
+			}
+			return share / this.unknown.length;
+		}
+
+		/**
+		 * Deals the boards of a Kronecker sequence
+		 *
+		 * @param shift  : the first point of the sequence, from 0 to 1
+		 * @param points : number of boards
+		 * @return the mean share won by the runouts
+		 */
+		double quasiRandom(double shift, long points, Tally tally) {
+			long boards = Combinations.choose(this.unknown.length, this.combination.length);
+			double share = 0;
+			double point = shift;
+			for (long i = 0; i < points; i++) {
+				Combinations.unrank((long) (point * boards), this.combination);
+				point += GOLDEN_STEP;
+				if (point >= 1) {
+					point -= 1;
+				}
+				this.deck.rewind(this.mark);
+				for (int j = 0; j < this.combination.length; j++) {
+					this.runout[j] = this.unknown[this.combination[j]];
+					this.deck.remove(Card.get(this.runout[j]));
+				}
+				this.draw(this.combination.length);
+				share += this.evaluate(this.runout, tally);
+			}
+			return share / points;
+		}
+
+		/**
+		 * Draws the cards of the runout after the first <dealt> ones
+		 */
+		private void draw(int dealt) {
+			for (int i = dealt; i < this.runout.length; i++) {
+				this.runout[i] = this.deck.drawIndex();
+			}
+		}
+
+		/**
+		 * Ranks every hand with a runout
+		 *
+		 * @return the share of the pot won by the hole cards
+		 */
+		private double evaluate(int[] runout, Tally tally) {
+			Card[] board = EquityCalculator.this.board;
+			this.dealer.clear();
+			for (int i = 0; i < board.length; i++) {
+				this.dealer.addToDealerHand(board[i]);
+			}
+			int next = 0;
+			for (int i = board.length; i < 5; i++) {
+				this.dealer.addToDealerHand(Card.get(runout[next++]));
+			}
+			for (int i = this.known; i < this.players; i++) {
+				this.playerCards[i] = Card.get(runout[next++]).getMask() | Card.get(runout[next++]).getMask();
+			}
+			WinConditionLogic.findHandRanks(this.dealer, this.playerCards, this.players, this.ranks);
+			return tally.add(this.ranks, this.players);
+		}
+	}
+
+	/**
+	 * @return the indexes of the cards that are not known, in increasing order
+	 */
+	private int[] unknownCards() {
+		int[] unknown = new int[Card.COUNT - Long.bitCount(this.knownCards)];
+		for (int card = 0, i = 0; card < Card.COUNT; card++) {
+			if ((this.knownCards & Card.get(card).getMask()) == 0) {
+				unknown[i++] = card;
+			}
+		}
+		return unknown;
+	}
+
+	/**
+	 * @return the antithetic card of each unknown card : the unknown cards sorted
+	 *         by value, then color, are swapped end for end
+	 */
+	private int[] mirror(int[] unknown) {
+		int[] byValue = new int[unknown.length];
+		int count = 0;
+		for (CardValue value : CardValue.values()) {
+			for (CardColor color : CardColor.values()) {
+				Card card = Card.of(value, color);
+				if ((this.knownCards & card.getMask()) == 0) {
+					byValue[count++] = card.getIndex();
+				}
+			}
+		}
+		int[] mirror = new int[Card.COUNT];
+		for (int i = 0; i < count; i++) {
+			mirror[byValue[i]] = byValue[count - 1 - i];
+		}
+		return mirror;
+	}
+
+	private int players() {
+		return 1 + this.knownOpponents.length + this.opponents;
+	}
+
+	private void checkPlayers() {
+		if (this.players() < 2) {
+			throw new IllegalStateException("There must be at least one opponent");
+		}
+		if (this.players() > 10) {
+			throw new IllegalStateException("There can't be more than 10 players");
+		}
+	}
+
+	/**
+	 * @return a buffer with the cards of the hole cards, then the known opponents,
+	 *         then room for the unknown opponents
+	 */
+	private long[] knownPlayerCards() {
+		long[] playerCards = new long[this.players()];
+		playerCards[0] = this.holeCards[0].getMask() | this.holeCards[1].getMask();
+		System.arraycopy(this.knownOpponents, 0, playerCards, 1, this.knownOpponents.length);
+		return playerCards;
+	}
+
+	private void addKnownCards(List<Card> cards) {
+		for (Card card : cards) {
+			if ((this.knownCards & card.getMask()) != 0) {
+				throw new IllegalArgumentException(card + " is dealt twice");
+			}
+			this.knownCards |= card.getMask();
+		}
+	}
+}
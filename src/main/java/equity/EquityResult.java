@@ -0,0 +1,182 @@
+package equity;
+
+/**
+ * Counts of the samples won, tied and lost by a hand. A tie between k hands is
+ * worth 1/k of a win in <getEquity>. Results of several workers are added with
+ * <merge>.
+ *
+ * For a sampled result, <getStandardError> is the standard error of the equity
+ * and <getLowerBound>, <getUpperBound> its 95% confidence interval. Unless the
+ * <SamplingMode> measured the variance of the equity itself, the samples are
+ * taken as independent.
+ */
+public class EquityResult {
+	/**
+	 * Number of standard errors on each side of a 95% confidence interval
+	 */
+	public static final double Z_95 = 1.959964;
+
+	private final long wins;
+	private final long ties;
+	private final long losses;
+	// sum of 1/k over the samples tied with k hands
+	private final double tieShare;
+	// sum of 1/k² over the samples tied with k hands
+	private final double tieSquares;
+	private final long nanos;
+	// variance of the equity measured by the sampling mode, NaN if not measured
+	private final double variance;
+
+	public EquityResult(long wins, long ties, long losses, double tieShare, double tieSquares, long nanos) {
+		this(wins, ties, losses, tieShare, tieSquares, nanos, Double.NaN);
+	}
+
+	private EquityResult(long wins, long ties, long losses, double tieShare, double tieSquares, long nanos,
+			double variance) {
+		this.wins = wins;
+		this.ties = ties;
+		this.losses = losses;
+		this.tieShare = tieShare;
+		this.tieSquares = tieSquares;
+		this.nanos = nanos;
+		this.variance = variance;
+	}
+
+	/**
+	 * Adds the counts of two results. The time is the longest of the two, since
+	 * workers run at the same time. The variance measured by a sampling mode is
+	 * lost.
+	 */
+	public EquityResult merge(EquityResult other) {
+		return new EquityResult(this.wins + other.wins, this.ties + other.ties, this.losses + other.losses,
+				this.tieShare + other.tieShare, this.tieSquares + other.tieSquares, Math.max(this.nanos, other.nanos));
+	}
+
+	/**
+	 * @return the same counts, computed in the given time
+	 */
+	public EquityResult withNanos(long nanos) {
+		return new EquityResult(this.wins, this.ties, this.losses, this.tieShare, this.tieSquares, nanos,
+				this.variance);
+	}
+
+	/**
+	 * @param variance : the variance of the equity, as measured by a sampling mode
+	 * @return the same counts with that variance
+	 */
+	public EquityResult withVariance(double variance) {
+		return new EquityResult(this.wins, this.ties, this.losses, this.tieShare, this.tieSquares, this.nanos,
+				variance);
+	}
+
+	public long getWins() {
+		return wins;
+	}
+
+	public long getTies() {
+		return ties;
+	}
+
+	public long getLosses() {
+		return losses;
+	}
+
+	public long getSamples() {
+		return this.wins + this.ties + this.losses;
+	}
+
+	public double getWinRate() {
+		return this.rate(this.wins);
+	}
+
+	public double getTieRate() {
+		return this.rate(this.ties);
+	}
+
+	public double getLoseRate() {
+		return this.rate(this.losses);
+	}
+
+	/**
+	 * @return the share of the pots won by the hand, ties included
+	 */
+	public double getEquity() {
+		long samples = this.getSamples();
+		return samples == 0 ? 0 : (this.wins + this.tieShare) / samples;
+	}
+
+	/**
+	 * @return the standard error of <getEquity>, the share won by a sample being a
+	 *         random variable
+	 */
+	public double getStandardError() {
+		if (!Double.isNaN(this.variance)) {
+			return Math.sqrt(this.variance);
+		}
+		return this.getUniformStandardError();
+	}
+
+	/**
+	 * @return how many times lower the variance of the equity is than with the same
+	 *         number of independent samples, 1 if the sampling mode didn't measure
+	 *         it
+	 */
+	public double getVarianceReduction() {
+		if (Double.isNaN(this.variance)) {
+			return 1;
+		}
+		double uniform = this.getUniformStandardError();
+		return uniform * uniform / this.variance;
+	}
+
+	private double getUniformStandardError() {
+		return standardError(this.getSamples(), this.wins + this.tieShare, this.wins + this.tieSquares);
+	}
+
+	public double getLowerBound() {
+		return Math.max(0, this.getEquity() - Z_95 * this.getStandardError());
+	}
+
+	public double getUpperBound() {
+		return Math.min(1, this.getEquity() + Z_95 * this.getStandardError());
+	}
+
+	/**
+	 * @param samples : number of samples
+	 * @param sum     : sum of the samples
+	 * @param squares : sum of the squares of the samples
+	 * @return the standard error of the mean of the samples, infinite with less
+	 *         than 2 samples
+	 */
+	static double standardError(long samples, double sum, double squares) {
+		if (samples < 2) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double mean = sum / samples;
+		double variance = Math.max(0, (squares - sum * mean) / (samples - 1));
+		return Math.sqrt(variance / samples);
+	}
+
+	/**
+	 * @return the time spent sampling, in nanoseconds
+	 */
+	public long getNanos() {
+		return nanos;
+	}
+
+	public double getSamplesPerSecond() {
+		return this.nanos == 0 ? 0 : this.getSamples() * 1e9 / this.nanos;
+	}
+
+	private double rate(long count) {
+		long samples = this.getSamples();
+		return samples == 0 ? 0 : (double) count / samples;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("equity %.4f +/- %.4f (win %.4f, tie %.4f, lose %.4f) over %d samples, %.0f samples/s",
+				this.getEquity(), Z_95 * this.getStandardError(), this.getWinRate(), this.getTieRate(),
+				this.getLoseRate(), this.getSamples(), this.getSamplesPerSecond());
+	}
+}
@@ -0,0 +1,276 @@
+package equity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+import classes.Card;
+import classes.DealerHand;
+import classes.Deck;
+import classes.PlayerHand;
+import logic.WinConditionLogic;
+
+/**
+ * Finds the equity of every hand of a table where all the hole cards are known,
+ * 2 to 10 hands. Each runout is dealt once in a <DealerHand>, then every hand is
+ * ranked against it with one call to <WinConditionLogic.findHandRanks>, which
+ * digests the board once for the whole table.
+ *
+ * A pot split between k hands gives 1/k to each of them, like
+ * <SidePotResolver>, so the equities of the table add up to 1. Like
+ * <EquityCalculator>, runouts are split between workers that each have their own
+ * deck and buffers, and the counts of the workers are added at the end.
+ */
+public class MultiwayEquity {
+	private final long[] playerCards;
+	private final Card[] board;
+	private final long knownCards;
+	private RandomGenerator random = new SplittableRandom();
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @param hands : the 2 cards of each hand
+	 * @param board : the known cards of the dealer hand, 0 to 5
+	 */
+	public MultiwayEquity(List<List<Card>> hands, List<Card> board) {
+		if (hands.size() < 2 || hands.size() > 10) {
+			throw new IllegalArgumentException("There must be 2 to 10 hands, not " + hands.size());
+		}
+		if (board.size() > 5) {
+			throw new IllegalArgumentException("A board has at most 5 cards, not " + board.size());
+		}
+		this.playerCards = new long[hands.size()];
+		long known = 0;
+		for (int i = 0; i < hands.size(); i++) {
+			List<Card> hand = hands.get(i);
+			if (hand.size() != 2) {
+				throw new IllegalArgumentException("A hand has 2 cards, not " + hand.size());
+			}
+			for (Card card : hand) {
+				known = addKnownCard(known, card);
+				this.playerCards[i] |= card.getMask();
+			}
+		}
+		for (Card card : board) {
+			known = addKnownCard(known, card);
+		}
+		this.board = board.toArray(new Card[0]);
+		this.knownCards = known;
+	}
+
+	/**
+	 * @param playerHands : the cards of each player
+	 * @param dealerHand  : the cards of the dealer known so far
+	 */
+	public MultiwayEquity(List<PlayerHand> playerHands, DealerHand dealerHand) {
+		this(cardsOf(playerHands), dealerHand.getDealerHand());
+	}
+
+	private static List<List<Card>> cardsOf(List<PlayerHand> playerHands) {
+		List<List<Card>> hands = new ArrayList<>();
+		for (PlayerHand playerHand : playerHands) {
+			hands.add(playerHand.getPlayerHand());
+		}
+		return hands;
+	}
+
+	private static long addKnownCard(long known, Card card) {
+		if ((known & card.getMask()) != 0) {
+			throw new IllegalArgumentException(card + " is dealt twice");
+		}
+		return known | card.getMask();
+	}
+
+	/**
+	 * @param random : gives the decks of the workers, the same seed gives the same
+	 *               result with the same parallelism
+	 */
+	public MultiwayEquity setRandom(RandomGenerator random) {
+		this.random = random;
+		return this;
+	}
+
+	public MultiwayEquity setSeed(long seed) {
+		return this.setRandom(new SplittableRandom(seed));
+	}
+
+	/**
+	 * @param parallelism : number of workers, by default the number of cores
+	 */
+	public MultiwayEquity setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * @return the number of runouts <enumerate> goes through
+	 */
+	public long getEnumerationSize() {
+		return Combinations.choose(Card.COUNT - Long.bitCount(this.knownCards), 5 - this.board.length);
+	}
+
+	/**
+	 * Deals the rest of the board <samples> times
+	 *
+	 * @param samples : number of runouts to deal
+	 * @return the wins, ties and losses of each hand, in the order they were given
+	 */
+	public EquityResult[] calculate(long samples) {
+		int workers = (int) Math.max(1, Math.min(this.parallelism, samples));
+		// decks are split before starting, so the result doesn't depend on the
+		// order the workers run in
+		Deck deck = new Deck(this.random);
+		Deck[] decks = new Deck[workers];
+		for (int i = 0; i < workers; i++) {
+			decks[i] = deck.split();
+		}
+		long start = System.nanoTime();
+		Counts counts = IntStream.range(0, workers).parallel().mapToObj(i -> {
+			Deck workerDeck = decks[i];
+			for (int card = 0; card < Card.COUNT; card++) {
+				if ((this.knownCards & Card.get(card).getMask()) != 0) {
+					workerDeck.remove(Card.get(card));
+				}
+			}
+			int mark = workerDeck.size();
+			DealerHand dealer = new DealerHand(workerDeck);
+			int[] ranks = new int[this.playerCards.length];
+			Counts workerCounts = new Counts(this.playerCards.length);
+			long workerSamples = samples / workers + (i < samples % workers ? 1 : 0);
+			for (long sample = 0; sample < workerSamples; sample++) {
+				workerDeck.rewind(mark);
+				this.dealBoard(dealer);
+				for (int card = this.board.length; card < 5; card++) {
+					dealer.addToDealerHand(workerDeck.draw());
+				}
+				WinConditionLogic.findHandRanks(dealer, this.playerCards, this.playerCards.length, ranks);
+				workerCounts.add(ranks);
+			}
+			return workerCounts;
+		}).reduce(Counts::add).get();
+		return counts.toResults(System.nanoTime() - start);
+	}
+
+	/**
+	 * Deals every possible rest of the board once
+	 *
+	 * @return the exact wins, ties and losses of each hand, in the order they were
+	 *         given
+	 */
+	public EquityResult[] enumerate() {
+		int[] unknown = new int[Card.COUNT - Long.bitCount(this.knownCards)];
+		for (int card = 0, i = 0; card < Card.COUNT; card++) {
+			if ((this.knownCards & Card.get(card).getMask()) == 0) {
+				unknown[i++] = card;
+			}
+		}
+		long boards = this.getEnumerationSize();
+		// more ranges than workers, so a slow range doesn't keep the others waiting
+		int ranges = (int) Math.min(boards, this.parallelism * 8L);
+		long start = System.nanoTime();
+		Counts counts = IntStream.range(0, ranges).parallel()
+				.mapToObj(i -> this.enumerate(unknown, boards * i / ranges, boards * (i + 1) / ranges))
+				.reduce(Counts::add).get();
+		return counts.toResults(System.nanoTime() - start);
+	}
+
+	/**
+	 * The loop of a worker of <enumerate>, going through the boards numbered
+	 * <from> to <to> excluded
+	 */
+	private Counts enumerate(int[] unknown, long from, long to) {
+		// the board is dealt by hand, the dealer hand doesn't need a deck
+		DealerHand dealer = new DealerHand(null);
+		int[] ranks = new int[this.playerCards.length];
+		Counts counts = new Counts(this.playerCards.length);
+		int[] combination = new int[5 - this.board.length];
+		Combinations.unrank(from, combination);
+		for (long index = from; index < to; index++) {
+			this.dealBoard(dealer);
+			for (int i = 0; i < combination.length; i++) {
+				dealer.addToDealerHand(Card.get(unknown[combination[i]]));
+			}
+			WinConditionLogic.findHandRanks(dealer, this.playerCards, this.playerCards.length, ranks);
+			counts.add(ranks);
+			Combinations.next(combination, unknown.length);
+		}
+		return counts;
+	}
+
+	private void dealBoard(DealerHand dealer) {
+		dealer.clear();
+		for (int i = 0; i < this.board.length; i++) {
+			dealer.addToDealerHand(this.board[i]);
+		}
+	}
+
+	/**
+	 * Counts the outcomes of every hand of the table, runout after runout
+	 */
+	private static class Counts {
+		private final long[] wins;
+		private final long[] ties;
+		private final long[] losses;
+		// sums of the shares won by ties, and of their squares
+		private final double[] tieShare;
+		private final double[] tieSquares;
+
+		Counts(int players) {
+			this.wins = new long[players];
+			this.ties = new long[players];
+			this.losses = new long[players];
+			this.tieShare = new double[players];
+			this.tieSquares = new double[players];
+		}
+
+		void add(int[] ranks) {
+			int best = -1;
+			int tied = 0;
+			for (int i = 0; i < this.wins.length; i++) {
+				if (ranks[i] > best) {
+					best = ranks[i];
+					tied = 1;
+				} else if (ranks[i] == best) {
+					tied++;
+				}
+			}
+			double share = 1.0 / tied;
+			for (int i = 0; i < this.wins.length; i++) {
+				if (ranks[i] < best) {
+					this.losses[i]++;
+				} else if (tied == 1) {
+					this.wins[i]++;
+				} else {
+					this.ties[i]++;
+					this.tieShare[i] += share;
+					this.tieSquares[i] += share * share;
+				}
+			}
+		}
+
+		Counts add(Counts other) {
+			for (int i = 0; i < this.wins.length; i++) {
+				this.wins[i] += other.wins[i];
+				this.ties[i] += other.ties[i];
+				this.losses[i] += other.losses[i];
+				this.tieShare[i] += other.tieShare[i];
+				this.tieSquares[i] += other.tieSquares[i];
+			}
+			return this;
+		}
+
+		EquityResult[] toResults(long nanos) {
+			EquityResult[] results = new EquityResult[this.wins.length];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = new EquityResult(this.wins[i], this.ties[i], this.losses[i], this.tieShare[i],
+						this.tieSquares[i], nanos);
+			}
+			return results;
+		}
+	}
+}
@@ -0,0 +1,209 @@
+package equity;
+
+import java.util.List;
+
+import classes.Card;
+import classes.DealerHand;
+import classes.PlayerHand;
+import classes.WinCondition;
+import classes.WinningCombination;
+import logic.BitmaskEvaluator;
+
+/**
+ * Tries every unseen card on the flop or the turn : the rank the hand gets with
+ * it, and whether that puts it ahead of the opponents. Unseen cards are the
+ * cards that are neither in the dealer hand nor in a known hand, 47 on the flop
+ * and 46 on the turn with no known opponent.
+ *
+ * An <Outs> is a buffer meant to be reused : <calculate> fills it without
+ * allocating anything, using the state kept by the <DealerHand>, so a sweep
+ * takes a few microseconds.
+ */
+public class Outs {
+	private static final WinCondition[] CONDITIONS = WinCondition.values();
+	// card mask of the 52 cards
+	private static final long DECK = 0x1FFF1FFF1FFF1FFFL;
+
+	// index of each unseen card, see <Card.getIndex>
+	private final int[] cards = new int[Card.COUNT];
+	private final int[] ranks = new int[Card.COUNT];
+	// best rank of the opponents with each card
+	private final int[] opponentRanks = new int[Card.COUNT];
+	private final int[] buffer = new int[Card.COUNT];
+	private int size;
+	private int rank;
+	private int opponentRank;
+	private int cardsToCome;
+
+	/**
+	 * @param dealerHand : the flop or the turn
+	 * @param playerHand : the hand we look for outs of
+	 * @param opponents  : the hands of the opponents, may be empty
+	 * @return this, filled
+	 */
+	public Outs calculate(DealerHand dealerHand, PlayerHand playerHand, List<PlayerHand> opponents) {
+		long cards = BitmaskEvaluator.cardMask(playerHand.getPlayerHand());
+		long known = dealerHand.getCardMask() | cards;
+		for (int i = 0; i < opponents.size(); i++) {
+			known |= BitmaskEvaluator.cardMask(opponents.get(i).getPlayerHand());
+		}
+		this.start(dealerHand, cards, known);
+		for (int i = 0; i < opponents.size(); i++) {
+			this.addOpponent(dealerHand, BitmaskEvaluator.cardMask(opponents.get(i).getPlayerHand()), known);
+		}
+		return this;
+	}
+
+	/**
+	 * Same as <calculate>, on card masks
+	 *
+	 * @param playerCards   : card mask of the hand we look for outs of
+	 * @param opponentCards : card mask of each opponent
+	 * @param opponents     : how many opponents to read from <opponentCards>
+	 * @return this, filled
+	 */
+	public Outs calculate(DealerHand dealerHand, long playerCards, long[] opponentCards, int opponents) {
+		long known = dealerHand.getCardMask() | playerCards;
+		for (int i = 0; i < opponents; i++) {
+			known |= opponentCards[i];
+		}
+		this.start(dealerHand, playerCards, known);
+		for (int i = 0; i < opponents; i++) {
+			this.addOpponent(dealerHand, opponentCards[i], known);
+		}
+		return this;
+	}
+
+	private void start(DealerHand dealerHand, long playerCards, long known) {
+		int boardSize = Long.bitCount(dealerHand.getCardMask());
+		if (boardSize != 3 && boardSize != 4) {
+			throw new IllegalArgumentException("Outs are found on the flop or the turn, not with " + boardSize
+					+ " cards in the dealer hand");
+		}
+		this.cardsToCome = 5 - boardSize;
+		this.rank = BitmaskEvaluator.evaluate(dealerHand, playerCards);
+		this.opponentRank = -1;
+		long unseen = ~known;
+		this.size = BitmaskEvaluator.evaluateEach(dealerHand, playerCards, unseen & DECK, this.ranks);
+		int i = 0;
+		for (long remaining = unseen & DECK; remaining != 0; remaining &= remaining - 1) {
+			int bit = Long.numberOfTrailingZeros(remaining);
+			this.cards[i] = (bit >>> 4) * 13 + (bit & 15);
+			this.opponentRanks[i++] = -1;
+		}
+	}
+
+	private void addOpponent(DealerHand dealerHand, long opponentCards, long known) {
+		this.opponentRank = Math.max(this.opponentRank, BitmaskEvaluator.evaluate(dealerHand, opponentCards));
+		BitmaskEvaluator.evaluateEach(dealerHand, opponentCards, ~known & DECK, this.buffer);
+		for (int i = 0; i < this.size; i++) {
+			this.opponentRanks[i] = Math.max(this.opponentRanks[i], this.buffer[i]);
+		}
+	}
+
+	/**
+	 * @return the number of unseen cards
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * @param i : 0 to <size> - 1
+	 * @return the unseen card number i
+	 */
+	public Card getCard(int i) {
+		return Card.get(this.cards[i]);
+	}
+
+	/**
+	 * @return the rank of the hand with the unseen card number i, as packed by
+	 *         <WinningCombination>
+	 */
+	public int getRank(int i) {
+		return this.ranks[i];
+	}
+
+	public WinCondition getWinCondition(int i) {
+		return CONDITIONS[this.ranks[i] >>> WinningCombination.CONDITION_SHIFT];
+	}
+
+	/**
+	 * @return true if the unseen card number i gives a better <WinCondition> than
+	 *         the hand has now
+	 */
+	public boolean improves(int i) {
+		return this.ranks[i] >>> WinningCombination.CONDITION_SHIFT > this.rank >>> WinningCombination.CONDITION_SHIFT;
+	}
+
+	/**
+	 * @return true if the hand beats every opponent with the unseen card number i,
+	 *         always true with no opponent
+	 */
+	public boolean isAhead(int i) {
+		return this.ranks[i] > this.opponentRanks[i];
+	}
+
+	/**
+	 * @return true if the hand ties the best opponent with the unseen card number i
+	 */
+	public boolean isTied(int i) {
+		return this.ranks[i] == this.opponentRanks[i];
+	}
+
+	/**
+	 * @return the rank of the hand now
+	 */
+	public int getRank() {
+		return this.rank;
+	}
+
+	/**
+	 * @return true if the hand beats every opponent now
+	 */
+	public boolean isAhead() {
+		return this.rank > this.opponentRank;
+	}
+
+	/**
+	 * @return the number of unseen cards that put the hand ahead of every opponent
+	 */
+	public int countAhead() {
+		int count = 0;
+		for (int i = 0; i < this.size; i++) {
+			if (this.isAhead(i)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * @return the number of unseen cards that give a better <WinCondition>
+	 */
+	public int countImproving() {
+		int count = 0;
+		for (int i = 0; i < this.size; i++) {
+			if (this.improves(i)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Odds of hitting one of <outs> cards before the river, for instance
+	 * <getHitProbability(countAhead())>. On the flop, hands made by the turn and
+	 * the river together are not counted.
+	 *
+	 * @param outs : number of cards that are wanted among the unseen cards
+	 * @return the probability that one of them comes
+	 */
+	public double getHitProbability(int outs) {
+		if (this.cardsToCome == 1) {
+			return (double) outs / this.size;
+		}
+		// one minus the odds of missing twice
+		return 1 - (double) (this.size - outs) * (this.size - outs - 1) / ((double) this.size * (this.size - 1));
+	}
+}
@@ -0,0 +1,308 @@
+package equity;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import classes.Card;
+import classes.DealerHand;
+import classes.Deck;
+import classes.PlayerHand;
+import logic.WinConditionLogic;
+
+/**
+ * All-in equities before the flop, which never change : for each of the
+ * <StartingHands> classes against 1 to 9 random opponents, and for every class
+ * against every other class heads-up.
+ *
+ * The table is computed once by <generate>, or by running this class, and
+ * stored in a file of about 30KB : a header, then every equity as an unsigned
+ * 16-bit fraction of 1, the heads-up ones only for a class against a higher
+ * class since the other half is 1 minus them. <get> loads the file given by the
+ * <poker.preflopTable> system property, or <pokerpoo-preflop.bin> in the
+ * temporary directory. Generating the table takes minutes, so <get> never does
+ * it : the file has to be made beforehand by running this class.
+ */
+public final class PreflopTable {
+	/**
+	 * Most random opponents the table has equities for
+	 */
+	public static final int MAX_OPPONENTS = 9;
+	public static final int DEFAULT_SAMPLES = 100000;
+	public static final int DEFAULT_HEADS_UP_SAMPLES = 5000;
+	private static final int MAGIC = 0x504B5046;
+	private static final int VERSION = 1;
+	private static final int HEADER = 16;
+	private static final int SCALE = 0xFFFF;
+	private static final int HEADS_UP = StartingHands.COUNT * (StartingHands.COUNT - 1) / 2;
+
+	// equity of each class against 1 to 9 opponents, by number of opponents
+	private final float[] equities;
+	// equity of each class against each class
+	private final float[] headsUp;
+	private final int samples;
+	private final int headsUpSamples;
+
+	private PreflopTable(float[] equities, float[] headsUp, int samples, int headsUpSamples) {
+		this.equities = equities;
+		this.headsUp = headsUp;
+		this.samples = samples;
+		this.headsUpSamples = headsUpSamples;
+	}
+
+	/**
+	 * @return the table of the file, loaded the first time
+	 * @throws IllegalStateException if the file is missing or outdated, run
+	 *                               <main> to generate it
+	 */
+	public static PreflopTable get() {
+		return Holder.TABLE;
+	}
+
+	/**
+	 * @param hand      : a class of <StartingHands>
+	 * @param opponents : number of random opponents, 1 to 9
+	 * @return the equity of the class
+	 */
+	public float getEquity(int hand, int opponents) {
+		if (opponents < 1 || opponents > MAX_OPPONENTS) {
+			throw new IllegalArgumentException("There must be 1 to 9 opponents, not " + opponents);
+		}
+		return this.equities[(opponents - 1) * StartingHands.COUNT + hand];
+	}
+
+	/**
+	 * @param playerHand : the 2 cards of a player
+	 * @param opponents  : number of random opponents, 1 to 9
+	 * @return the equity of the hand
+	 */
+	public float getEquity(PlayerHand playerHand, int opponents) {
+		return this.getEquity(StartingHands.index(playerHand), opponents);
+	}
+
+	/**
+	 * @param hand    : a class of <StartingHands>
+	 * @param against : the class of the only opponent
+	 * @return the equity of <hand>, averaged over the hands of both classes
+	 */
+	public float getHeadsUpEquity(int hand, int against) {
+		return this.headsUp[hand * StartingHands.COUNT + against];
+	}
+
+	/**
+	 * @return the number of runouts each equity against random opponents comes from
+	 */
+	public int getSamples() {
+		return samples;
+	}
+
+	/**
+	 * @return the number of runouts each heads-up equity comes from
+	 */
+	public int getHeadsUpSamples() {
+		return headsUpSamples;
+	}
+
+	/**
+	 * Computes a table with Monte Carlo sampling. Equities against random
+	 * opponents use <EquityCalculator>. A heads-up equity deals a random hand of
+	 * each class, then a random board, for every sample.
+	 *
+	 * @param samples        : runouts for each class and number of opponents
+	 * @param headsUpSamples : runouts for each pair of classes
+	 * @param seed           : the same seed gives the same table
+	 */
+	public static PreflopTable generate(int samples, int headsUpSamples, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		float[] equities = new float[MAX_OPPONENTS * StartingHands.COUNT];
+		for (int opponents = 1; opponents <= MAX_OPPONENTS; opponents++) {
+			for (int hand = 0; hand < StartingHands.COUNT; hand++) {
+				EquityCalculator calculator = new EquityCalculator(StartingHands.cards(hand), List.of(), opponents);
+				equities[(opponents - 1) * StartingHands.COUNT + hand] = (float) calculator
+						.setSeed(random.nextLong()).calculate(samples).getEquity();
+			}
+		}
+		// one seed per pair of classes, so the result doesn't depend on the order
+		// the pairs are computed in
+		long[] seeds = new long[HEADS_UP];
+		for (int i = 0; i < HEADS_UP; i++) {
+			seeds[i] = random.nextLong();
+		}
+		float[] headsUp = new float[StartingHands.COUNT * StartingHands.COUNT];
+		IntStream.range(0, StartingHands.COUNT).parallel().forEach(hand -> {
+			for (int against = hand + 1; against < StartingHands.COUNT; against++) {
+				float equity = headsUp(hand, against, headsUpSamples, seeds[pair(hand, against)]);
+				headsUp[hand * StartingHands.COUNT + against] = equity;
+				headsUp[against * StartingHands.COUNT + hand] = 1 - equity;
+			}
+			headsUp[hand * StartingHands.COUNT + hand] = 0.5f;
+		});
+		return new PreflopTable(equities, headsUp, samples, headsUpSamples);
+	}
+
+	private static float headsUp(int hand, int against, int samples, long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		Deck deck = new Deck(random.split());
+		DealerHand dealer = new DealerHand(deck);
+		long[] playerCards = new long[2];
+		int[] ranks = new int[2];
+		int[] hands = StartingHands.hands(hand);
+		int[] otherHands = StartingHands.hands(against);
+		double share = 0;
+		for (int sample = 0; sample < samples; sample++) {
+			int first;
+			int second;
+			// the two hands can't share a card
+			do {
+				first = hands[random.nextInt(hands.length)];
+				second = otherHands[random.nextInt(otherHands.length)];
+			} while (first / Card.COUNT == second / Card.COUNT || first / Card.COUNT == second % Card.COUNT
+					|| first % Card.COUNT == second / Card.COUNT || first % Card.COUNT == second % Card.COUNT);
+			deck.rewind(Card.COUNT);
+			playerCards[0] = take(deck, first);
+			playerCards[1] = take(deck, second);
+			dealer.clear();
+			for (int i = 0; i < 5; i++) {
+				dealer.addToDealerHand(deck.draw());
+			}
+			WinConditionLogic.findHandRanks(dealer, playerCards, 2, ranks);
+			share += ranks[0] > ranks[1] ? 1 : ranks[0] == ranks[1] ? 0.5 : 0;
+		}
+		return (float) (share / samples);
+	}
+
+	/**
+	 * Takes the cards of a hand out of the deck
+	 *
+	 * @return the card mask of the hand
+	 */
+	private static long take(Deck deck, int hand) {
+		Card first = Card.get(hand / Card.COUNT);
+		Card second = Card.get(hand % Card.COUNT);
+		deck.remove(first);
+		deck.remove(second);
+		return first.getMask() | second.getMask();
+	}
+
+	/**
+	 * @return the position of a pair of classes, hand < against, in the file
+	 */
+	private static int pair(int hand, int against) {
+		// pairs of the lower classes come first
+		return hand * (2 * StartingHands.COUNT - hand - 1) / 2 + (against - hand - 1);
+	}
+
+	/**
+	 * Writes the table to a temporary file next to <file>, then moves it in place
+	 * so other JVMs never read a half-written file.
+	 */
+	public void write(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER + 2 * (this.equities.length + HEADS_UP));
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(this.samples).putInt(this.headsUpSamples);
+		for (float equity : this.equities) {
+			buffer.putChar(quantize(equity));
+		}
+		for (int hand = 0; hand < StartingHands.COUNT; hand++) {
+			for (int against = hand + 1; against < StartingHands.COUNT; against++) {
+				buffer.putChar(quantize(this.getHeadsUpEquity(hand, against)));
+			}
+		}
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = Files.createTempFile(directory, "preflop", ".tmp");
+		try {
+			Files.write(temporary, buffer.array());
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+	}
+
+	/**
+	 * @return the table of a file written by <write>, null if the file is missing
+	 *         or outdated
+	 */
+	public static PreflopTable read(Path file) throws IOException {
+		if (!Files.isRegularFile(file)) {
+			return null;
+		}
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		int size = HEADER + 2 * (MAX_OPPONENTS * StartingHands.COUNT + HEADS_UP);
+		if (buffer.remaining() != size || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+			return null;
+		}
+		int samples = buffer.getInt();
+		int headsUpSamples = buffer.getInt();
+		float[] equities = new float[MAX_OPPONENTS * StartingHands.COUNT];
+		for (int i = 0; i < equities.length; i++) {
+			equities[i] = (float) buffer.getChar() / SCALE;
+		}
+		float[] headsUp = new float[StartingHands.COUNT * StartingHands.COUNT];
+		for (int hand = 0; hand < StartingHands.COUNT; hand++) {
+			headsUp[hand * StartingHands.COUNT + hand] = 0.5f;
+			for (int against = hand + 1; against < StartingHands.COUNT; against++) {
+				float equity = (float) buffer.getChar() / SCALE;
+				headsUp[hand * StartingHands.COUNT + against] = equity;
+				headsUp[against * StartingHands.COUNT + hand] = 1 - equity;
+			}
+		}
+		return new PreflopTable(equities, headsUp, samples, headsUpSamples);
+	}
+
+	/**
+	 * @return the file the table is stored in
+	 */
+	public static Path tableFile() {
+		String path = System.getProperty("poker.preflopTable");
+		if (path != null) {
+			return Paths.get(path);
+		}
+		return Paths.get(System.getProperty("java.io.tmpdir"), "pokerpoo-preflop.bin");
+	}
+
+	private static char quantize(float equity) {
+		return (char) Math.round(Math.min(1, Math.max(0, equity)) * SCALE);
+	}
+
+	/**
+	 * Generates the table and writes it
+	 *
+	 * @param args : the file, the samples for each class and number of opponents,
+	 *             the samples for each pair of classes. All optional
+	 */
+	public static void main(String[] args) throws IOException {
+		Path file = args.length > 0 ? Paths.get(args[0]) : tableFile();
+		int samples = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SAMPLES;
+		int headsUpSamples = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_HEADS_UP_SAMPLES;
+		long start = System.nanoTime();
+		generate(samples, headsUpSamples, System.nanoTime()).write(file);
+		System.out.println("Preflop table written to " + file + " in " + (System.nanoTime() - start) / 1000000 + "ms");
+	}
+
+	/**
+	 * Holds the table of the file, so it's only loaded by the first <get>
+	 */
+	private static final class Holder {
+		static final PreflopTable TABLE = open(tableFile());
+
+		private static PreflopTable open(Path file) {
+			try {
+				PreflopTable table = read(file);
+				if (table == null) {
+					throw new IllegalStateException("The preflop table " + file + " is missing or outdated, "
+							+ "generate it with java " + PreflopTable.class.getName() + " [file]");
+				}
+				return table;
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not load the preflop table " + file, e);
+			}
+		}
+	}
+}
@@ -0,0 +1,326 @@
+package equity;
+
+import java.util.Arrays;
+
+import classes.Card;
+import classes.CardColor;
+import classes.CardValue;
+import logic.BoardRankTable;
+
+/**
+ * A set of weighted starting hands, for instance "TT+, AKs, KQo". Each of the
+ * 1326 hands of 2 cards is a combo, numbered by its cards a < b as
+ * <b * (b - 1) / 2 + a>. The combos of the range are the bits of a bitset, and
+ * each one has a weight, 1 by default.
+ *
+ * Removing the combos that share a card with known cards is a few ANDs : every
+ * card has the bitset of the combos holding it.
+ */
+public class Range {
+	/**
+	 * Number of combos
+	 */
+	public static final int COMBOS = Card.COUNT * (Card.COUNT - 1) / 2;
+	private static final int WORDS = (COMBOS + 63) / 64;
+	private static final String VALUES = "23456789TJQKA";
+	private static final String COLORS = "sdhc";
+	private static final CardColor[] COLOR_OF = { CardColor.SPADE, CardColor.DIAMOND, CardColor.HEART,
+			CardColor.CLOVER };
+	// cards of each combo
+	private static final int[] FIRST = new int[COMBOS];
+	private static final int[] SECOND = new int[COMBOS];
+	// combos holding each card
+	private static final long[][] CONFLICTS = new long[Card.COUNT][WORDS];
+
+	static {
+		for (int second = 1; second < Card.COUNT; second++) {
+			for (int first = 0; first < second; first++) {
+				int combo = combo(first, second);
+				FIRST[combo] = first;
+				SECOND[combo] = second;
+				CONFLICTS[first][combo >>> 6] |= 1L << combo;
+				CONFLICTS[second][combo >>> 6] |= 1L << combo;
+			}
+		}
+	}
+
+	private final long[] combos = new long[WORDS];
+	private final float[] weights = new float[COMBOS];
+
+	/**
+	 * @return the combo of two different cards
+	 */
+	public static int combo(Card first, Card second) {
+		int a = first.getIndex();
+		int b = second.getIndex();
+		if (a == b) {
+			throw new IllegalArgumentException("A combo has two different cards, not twice " + first);
+		}
+		return combo(Math.min(a, b), Math.max(a, b));
+	}
+
+	private static int combo(int first, int second) {
+		return BoardRankTable.combo(first, second);
+	}
+
+	public static Card getFirstCard(int combo) {
+		return Card.get(FIRST[combo]);
+	}
+
+	public static Card getSecondCard(int combo) {
+		return Card.get(SECOND[combo]);
+	}
+
+	/**
+	 * @return the card mask of a combo, see <BitmaskEvaluator>
+	 */
+	public static long getCardMask(int combo) {
+		return Card.get(FIRST[combo]).getMask() | Card.get(SECOND[combo]).getMask();
+	}
+
+	/**
+	 * Adds a combo with a weight of 1
+	 */
+	public void add(int combo) {
+		this.add(combo, 1);
+	}
+
+	/**
+	 * Adds a combo, or changes its weight
+	 *
+	 * @param weight : more than 0. A combo of weight 0.5 is dealt half as often as
+	 *               a combo of weight 1
+	 */
+	public void add(int combo, float weight) {
+		if (!(weight > 0)) {
+			throw new IllegalArgumentException("A combo needs a weight above 0, not " + weight);
+		}
+		this.combos[combo >>> 6] |= 1L << combo;
+		this.weights[combo] = weight;
+	}
+
+	/**
+	 * Adds every combo of a class of <StartingHands>
+	 */
+	public void addStartingHand(int startingHand, float weight) {
+		for (int hand : StartingHands.hands(startingHand)) {
+			this.add(combo(hand / Card.COUNT, hand % Card.COUNT), weight);
+		}
+	}
+
+	public void remove(int combo) {
+		this.combos[combo >>> 6] &= ~(1L << combo);
+		this.weights[combo] = 0;
+	}
+
+	public boolean contains(int combo) {
+		return (this.combos[combo >>> 6] & 1L << combo) != 0;
+	}
+
+	/**
+	 * @return the weight of a combo, 0 if it's not in the range
+	 */
+	public float getWeight(int combo) {
+		return this.weights[combo];
+	}
+
+	/**
+	 * @return the weight of every combo, not to be changed
+	 */
+	float[] weights() {
+		return this.weights;
+	}
+
+	/**
+	 * @return the number of combos
+	 */
+	public int size() {
+		int size = 0;
+		for (long word : this.combos) {
+			size += Long.bitCount(word);
+		}
+		return size;
+	}
+
+	public double getTotalWeight() {
+		double total = 0;
+		for (int combo = this.next(0); combo >= 0; combo = this.next(combo + 1)) {
+			total += this.weights[combo];
+		}
+		return total;
+	}
+
+	/**
+	 * Iterates over the combos : for (int combo = range.next(0); combo >= 0; combo
+	 * = range.next(combo + 1))
+	 *
+	 * @return the first combo of the range from <from>, -1 if there's none
+	 */
+	public int next(int from) {
+		if (from >= COMBOS) {
+			return -1;
+		}
+		int word = from >>> 6;
+		long bits = this.combos[word] & (-1L << from);
+		while (bits == 0) {
+			if (++word == WORDS) {
+				return -1;
+			}
+			bits = this.combos[word];
+		}
+		return word << 6 | Long.numberOfTrailingZeros(bits);
+	}
+
+	/**
+	 * @param cards : a card mask, see <BitmaskEvaluator>
+	 * @return a copy of the range without the combos holding one of the cards
+	 */
+	public Range withoutCards(long cards) {
+		Range range = new Range();
+		System.arraycopy(this.weights, 0, range.weights, 0, COMBOS);
+		System.arraycopy(this.combos, 0, range.combos, 0, WORDS);
+		for (int card = 0; card < Card.COUNT; card++) {
+			if ((cards & Card.get(card).getMask()) != 0) {
+				for (int word = 0; word < WORDS; word++) {
+					range.combos[word] &= ~CONFLICTS[card][word];
+				}
+			}
+		}
+		for (int combo = 0; combo < COMBOS; combo++) {
+			if (!range.contains(combo)) {
+				range.weights[combo] = 0;
+			}
+		}
+		return range;
+	}
+
+	/**
+	 * Parses the usual notation of ranges : a list separated by commas of
+	 * <ul>
+	 * <li>pairs : QQ, pairs from a value up : TT+, or between two values :
+	 * 22-55</li>
+	 * <li>other classes : AKs for the same color, AKo for different colors, AK for
+	 * both. Up to a kicker just below the high card : ATs+, or between two
+	 * kickers : K6o-K9o</li>
+	 * <li>single combos : AsKd, colors being s, d, h and c</li>
+	 * </ul>
+	 * Any of them may end with a weight : AKs:0.5
+	 *
+	 * @param range : a range, for instance "TT+, AKs, KQo"
+	 * @return the range
+	 */
+	public static Range parse(String range) {
+		Range result = new Range();
+		for (String part : range.split(",")) {
+			String token = part.trim();
+			if (token.isEmpty()) {
+				continue;
+			}
+			float weight = 1;
+			int colon = token.indexOf(':');
+			if (colon >= 0) {
+				try {
+					weight = Float.parseFloat(token.substring(colon + 1).trim());
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Not a weight : " + token, e);
+				}
+				token = token.substring(0, colon).trim();
+			}
+			result.addToken(token, weight);
+		}
+		return result;
+	}
+
+	private void addToken(String token, float weight) {
+		if (token.length() == 4 && COLORS.indexOf(token.charAt(1)) >= 0 && COLORS.indexOf(token.charAt(3)) >= 0) {
+			this.add(combo(parseCard(token, 0), parseCard(token, 2)), weight);
+			return;
+		}
+		int dash = token.indexOf('-');
+		if (dash >= 0) {
+			int[] from = parseClass(token.substring(0, dash), token);
+			int[] to = parseClass(token.substring(dash + 1), token);
+			boolean pairs = from[0] == from[1] && to[0] == to[1];
+			if (!pairs && (from[0] != to[0] || from[2] != to[2])) {
+				throw new IllegalArgumentException("Not a range : " + token);
+			}
+			int low = pairs ? Math.min(from[0], to[0]) : Math.min(from[1], to[1]);
+			int high = pairs ? Math.max(from[0], to[0]) : Math.max(from[1], to[1]);
+			for (int value = low; value <= high; value++) {
+				if (pairs) {
+					this.addClass(value, value, 0, weight);
+				} else {
+					this.addClass(from[0], value, from[2], weight);
+				}
+			}
+			return;
+		}
+		boolean plus = token.endsWith("+");
+		int[] parsed = parseClass(plus ? token.substring(0, token.length() - 1) : token, token);
+		int last = !plus ? parsed[1] : parsed[0] == parsed[1] ? VALUES.length() - 1 : parsed[0] - 1;
+		for (int value = parsed[1]; value <= last; value++) {
+			this.addClass(parsed[0] == parsed[1] ? value : parsed[0], value, parsed[2], weight);
+		}
+	}
+
+	/**
+	 * @param suited : 1 for the same color, -1 for different colors, 0 for both
+	 */
+	private void addClass(int high, int low, int suited, float weight) {
+		if (high == low || suited >= 0) {
+			this.addStartingHand(high == low ? high * 13 + high : high * 13 + low, weight);
+		}
+		if (high != low && suited <= 0) {
+			this.addStartingHand(low * 13 + high, weight);
+		}
+	}
+
+	/**
+	 * @return the high value, the low value, and 1 for the same color, -1 for
+	 *         different colors, 0 for both
+	 */
+	private static int[] parseClass(String name, String token) {
+		if (name.length() < 2 || name.length() > 3) {
+			throw new IllegalArgumentException("Not a range : " + token);
+		}
+		int a = VALUES.indexOf(Character.toUpperCase(name.charAt(0)));
+		int b = VALUES.indexOf(Character.toUpperCase(name.charAt(1)));
+		if (a < 0 || b < 0) {
+			throw new IllegalArgumentException("Not a range : " + token);
+		}
+		int suited = 0;
+		if (name.length() == 3) {
+			char color = Character.toLowerCase(name.charAt(2));
+			if ((color != 's' && color != 'o') || a == b) {
+				throw new IllegalArgumentException("Not a range : " + token);
+			}
+			suited = color == 's' ? 1 : -1;
+		}
+		return new int[] { Math.max(a, b), Math.min(a, b), suited };
+	}
+
+	private static Card parseCard(String token, int position) {
+		int value = VALUES.indexOf(Character.toUpperCase(token.charAt(position)));
+		int color = COLORS.indexOf(token.charAt(position + 1));
+		if (value < 0 || color < 0) {
+			throw new IllegalArgumentException("Not a card : " + token.substring(position, position + 2));
+		}
+		return Card.of(CardValue.values()[value], COLOR_OF[color]);
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		return o instanceof Range && Arrays.equals(((Range) o).combos, this.combos)
+				&& Arrays.equals(((Range) o).weights, this.weights);
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(this.combos);
+	}
+
+	@Override
+	public String toString() {
+		return this.size() + " combos";
+	}
+}
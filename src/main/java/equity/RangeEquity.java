@@ -0,0 +1,234 @@
+package equity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+import classes.Card;
+import classes.DealerHand;
+import classes.Deck;
+import logic.BoardRankTable;
+import logic.WinConditionLogic;
+
+/**
+ * Finds the equity of a <Range> against one or more ranges, on a board that may
+ * already be partly known, with Monte Carlo sampling.
+ *
+ * The combos holding a card of the board are removed from every range once,
+ * with the bitsets of <Range>. Each sample then picks a combo of each range
+ * according to the weights, and starts over if two combos share a card, so
+ * combos are dealt together exactly as often as their weights and the cards
+ * they hold allow. The rest of the board is dealt from a <Deck>. Like
+ * <EquityCalculator>, sampling is split between workers that each have their
+ * own deck and buffers, and the counts of the workers are merged at the end.
+ */
+public class RangeEquity {
+	// picks of combos before deciding the ranges can't be dealt together
+	private static final int MAX_ATTEMPTS = 100000;
+
+	private final Range[] ranges;
+	private final Card[] board;
+	private final long boardCards;
+	private RandomGenerator random = new SplittableRandom();
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	/**
+	 * @param range     : the range we want the equity of
+	 * @param board     : the known cards of the dealer hand, 0 to 5
+	 * @param opponents : the ranges of the 1 to 9 opponents
+	 */
+	public RangeEquity(Range range, List<Card> board, Range... opponents) {
+		if (board.size() > 5) {
+			throw new IllegalArgumentException("A board has at most 5 cards, not " + board.size());
+		}
+		if (opponents.length < 1 || opponents.length > 9) {
+			throw new IllegalArgumentException("There must be 1 to 9 opponents, not " + opponents.length);
+		}
+		this.board = board.toArray(new Card[0]);
+		long cards = 0;
+		for (Card card : this.board) {
+			if ((cards & card.getMask()) != 0) {
+				throw new IllegalArgumentException(card + " is dealt twice");
+			}
+			cards |= card.getMask();
+		}
+		this.boardCards = cards;
+		this.ranges = new Range[opponents.length + 1];
+		this.ranges[0] = range.withoutCards(cards);
+		for (int i = 0; i < opponents.length; i++) {
+			this.ranges[i + 1] = opponents[i].withoutCards(cards);
+		}
+		for (Range playable : this.ranges) {
+			if (playable.size() == 0) {
+				throw new IllegalArgumentException("A range has no combo left with this board");
+			}
+		}
+	}
+
+	/**
+	 * @param random : gives the decks of the workers, the same seed gives the same
+	 *               result with the same parallelism
+	 */
+	public RangeEquity setRandom(RandomGenerator random) {
+		this.random = random;
+		return this;
+	}
+
+	public RangeEquity setSeed(long seed) {
+		return this.setRandom(new SplittableRandom(seed));
+	}
+
+	/**
+	 * @param parallelism : number of workers, by default the number of cores
+	 */
+	public RangeEquity setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("At least one worker is needed");
+		}
+		this.parallelism = parallelism;
+		return this;
+	}
+
+	/**
+	 * Deals combos of the ranges and the rest of the board <samples> times
+	 *
+	 * @param samples : number of runouts to deal
+	 * @return the wins, ties and losses of the first range
+	 */
+	public EquityResult calculate(long samples) {
+		int workers = (int) Math.max(1, Math.min(this.parallelism, samples));
+		// decks are split before starting, so the result doesn't depend on the
+		// order the workers run in
+		Deck deck = new Deck(this.random);
+		Deck[] decks = new Deck[workers];
+		SplittableRandom[] pickers = new SplittableRandom[workers];
+		for (int i = 0; i < workers; i++) {
+			decks[i] = deck.split();
+			pickers[i] = new SplittableRandom(this.random.nextLong());
+		}
+		long start = System.nanoTime();
+		Tally tally = IntStream.range(0, workers).parallel().mapToObj(i -> {
+			Tally workerTally = new Tally();
+			new Sampler(decks[i], pickers[i]).sample(samples / workers + (i < samples % workers ? 1 : 0), workerTally);
+			return workerTally;
+		}).reduce((a, b) -> {
+			a.add(b);
+			return a;
+		}).get();
+		return tally.toResult(System.nanoTime() - start);
+	}
+
+	/**
+	 * Exact equity of the first range against one range once the board is
+	 * complete, from the <BoardRankTable> of the board instead of sampling
+	 *
+	 * @return the share of the pot won by the first range, ties counting for half
+	 */
+	public double calculateOnRiver() {
+		if (this.board.length != 5 || this.ranges.length != 2) {
+			throw new IllegalStateException("Needs a complete board and one opponent");
+		}
+		return new BoardRankTable(this.boardCards).equity(this.ranges[0].weights(), this.ranges[1].weights());
+	}
+
+	/**
+	 * A worker of <calculate>, with its own deck, dealer hand and buffers
+	 */
+	private class Sampler {
+		private final Deck deck;
+		// picks the combos, the deck only deals the board
+		private final SplittableRandom picker;
+		private final DealerHand dealer;
+		private final int players = RangeEquity.this.ranges.length;
+		private final long[] playerCards = new long[this.players];
+		private final int[] playerCombos = new int[this.players];
+		private final int[] ranks = new int[this.players];
+		// combos of each range, and the sum of the weights up to each combo
+		private final int[][] combos = new int[this.players][];
+		private final double[][] cumulativeWeights = new double[this.players][];
+		// size of the deck once the board is out
+		private final int mark;
+
+		Sampler(Deck deck, SplittableRandom picker) {
+			this.deck = deck;
+			this.picker = picker;
+			this.dealer = new DealerHand(deck);
+			for (Card card : RangeEquity.this.board) {
+				deck.remove(card);
+			}
+			this.mark = deck.size();
+			for (int player = 0; player < this.players; player++) {
+				Range range = RangeEquity.this.ranges[player];
+				this.combos[player] = new int[range.size()];
+				this.cumulativeWeights[player] = new double[range.size()];
+				double total = 0;
+				int i = 0;
+				for (int combo = range.next(0); combo >= 0; combo = range.next(combo + 1)) {
+					total += range.getWeight(combo);
+					this.combos[player][i] = combo;
+					this.cumulativeWeights[player][i++] = total;
+				}
+			}
+		}
+
+		void sample(long samples, Tally tally) {
+			Card[] board = RangeEquity.this.board;
+			for (long sample = 0; sample < samples; sample++) {
+				this.pickCombos();
+				this.deck.rewind(this.mark);
+				for (int player = 0; player < this.players; player++) {
+					this.deck.remove(Range.getFirstCard(this.playerCombos[player]));
+					this.deck.remove(Range.getSecondCard(this.playerCombos[player]));
+				}
+				this.dealer.clear();
+				for (int i = 0; i < board.length; i++) {
+					this.dealer.addToDealerHand(board[i]);
+				}
+				for (int i = board.length; i < 5; i++) {
+					this.dealer.addToDealerHand(this.deck.draw());
+				}
+				WinConditionLogic.findHandRanks(this.dealer, this.playerCards, this.players, this.ranks);
+				tally.add(this.ranks, this.players);
+			}
+		}
+
+		/**
+		 * Picks a combo of each range, until no two combos share a card
+		 */
+		private void pickCombos() {
+			for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+				long used = RangeEquity.this.boardCards;
+				int player = 0;
+				while (player < this.players) {
+					int combo = this.pick(player);
+					long cards = Range.getCardMask(combo);
+					if ((used & cards) != 0) {
+						break;
+					}
+					used |= cards;
+					this.playerCombos[player] = combo;
+					this.playerCards[player] = cards;
+					player++;
+				}
+				if (player == this.players) {
+					return;
+				}
+			}
+			throw new IllegalStateException("The ranges can't be dealt together");
+		}
+
+		/**
+		 * @return a combo of the range of a player, picked according to the weights
+		 */
+		private int pick(int player) {
+			double[] cumulative = this.cumulativeWeights[player];
+			double target = this.picker.nextDouble() * cumulative[cumulative.length - 1];
+			int i = Arrays.binarySearch(cumulative, target);
+			// the first combo whose cumulative weight is above the target
+			i = i >= 0 ? i + 1 : -i - 1;
+			return this.combos[player][Math.min(i, cumulative.length - 1)];
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package equity;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sums of the samples of every worker of an adaptive run, updated after each
+ * batch without any lock, and read to decide when the run stops.
+ */
+class RunningEquity {
+	private final LongAdder samples = new LongAdder();
+	private final DoubleAdder sum = new DoubleAdder();
+	private final DoubleAdder squares = new DoubleAdder();
+	private volatile boolean stopped;
+
+	void add(Tally batch) {
+		this.sum.add(batch.sum());
+		this.squares.add(batch.squares());
+		// counted last, so a reader never sees more samples than sums
+		this.samples.add(batch.samples());
+	}
+
+	long getSamples() {
+		return this.samples.sum();
+	}
+
+	double getStandardError() {
+		return EquityResult.standardError(this.samples.sum(), this.sum.sum(), this.squares.sum());
+	}
+
+	void stop() {
+		this.stopped = true;
+	}
+
+	boolean isStopped() {
+		return this.stopped;
+	}
+}
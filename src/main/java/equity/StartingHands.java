@@ -0,0 +1,140 @@
+package equity;
+
+import java.util.List;
+
+import classes.Card;
+import classes.CardColor;
+import classes.CardValue;
+import classes.PlayerHand;
+
+/**
+ * The 169 classes of starting hands : before the flop, only the values of the
+ * two cards and whether they have the same color matter. A class is numbered
+ * by its cell in a 13x13 grid : <value * 13 + value> for a pair, <high * 13 +
+ * low> when the cards have the same color, <low * 13 + high> when they don't.
+ */
+public final class StartingHands {
+	/**
+	 * Number of classes
+	 */
+	public static final int COUNT = 169;
+	private static final int VALUES = 13;
+	private static final String NAMES = "23456789TJQKA";
+	// every hand of each class, see <hands>
+	private static final int[][] HANDS = new int[COUNT][];
+
+	static {
+		int[] counts = new int[COUNT];
+		for (int i = 0; i < COUNT; i++) {
+			HANDS[i] = new int[combinations(i)];
+		}
+		for (int first = 0; first < Card.COUNT; first++) {
+			for (int second = first + 1; second < Card.COUNT; second++) {
+				int index = index(Card.get(first), Card.get(second));
+				HANDS[index][counts[index]++] = first * Card.COUNT + second;
+			}
+		}
+	}
+
+	private StartingHands() {
+	}
+
+	/**
+	 * @return the class of a starting hand
+	 */
+	public static int index(Card first, Card second) {
+		int a = first.getCardValue().ordinal();
+		int b = second.getCardValue().ordinal();
+		int high = Math.max(a, b);
+		int low = Math.min(a, b);
+		if (first.getCardColor() == second.getCardColor()) {
+			return high * VALUES + low;
+		}
+		return low * VALUES + high;
+	}
+
+	/**
+	 * @return the class of the 2 cards of a player
+	 */
+	public static int index(PlayerHand playerHand) {
+		List<Card> cards = playerHand.getPlayerHand();
+		return index(cards.get(0), cards.get(1));
+	}
+
+	public static boolean isPair(int index) {
+		return index / VALUES == index % VALUES;
+	}
+
+	public static boolean isSuited(int index) {
+		return index / VALUES > index % VALUES;
+	}
+
+	/**
+	 * @return the number of hands of a class : 6 for a pair, 4 when the cards have
+	 *         the same color, 12 when they don't
+	 */
+	public static int combinations(int index) {
+		return isPair(index) ? 6 : isSuited(index) ? 4 : 12;
+	}
+
+	/**
+	 * @return the hands of a class, each one as <first * 52 + second> where first
+	 *         and second are the indexes of its cards
+	 */
+	static int[] hands(int index) {
+		return HANDS[index];
+	}
+
+	/**
+	 * @return a hand of the class, the highest card first
+	 */
+	public static List<Card> cards(int index) {
+		CardValue high = CardValue.values()[Math.max(index / VALUES, index % VALUES)];
+		CardValue low = CardValue.values()[Math.min(index / VALUES, index % VALUES)];
+		CardColor second = isSuited(index) ? CardColor.SPADE : CardColor.HEART;
+		return List.of(Card.of(high, CardColor.SPADE), Card.of(low, second));
+	}
+
+	/**
+	 * @return the usual name of a class : AA, AKs, T9o...
+	 */
+	public static String name(int index) {
+		int high = Math.max(index / VALUES, index % VALUES);
+		int low = Math.min(index / VALUES, index % VALUES);
+		String name = "" + NAMES.charAt(high) + NAMES.charAt(low);
+		if (isPair(index)) {
+			return name;
+		}
+		return name + (isSuited(index) ? "s" : "o");
+	}
+
+	/**
+	 * @param name : a name as given by <name>
+	 * @return the class with that name
+	 */
+	public static int index(String name) {
+		if (name.length() < 2 || name.length() > 3) {
+			throw new IllegalArgumentException("Not a starting hand : " + name);
+		}
+		int high = NAMES.indexOf(Character.toUpperCase(name.charAt(0)));
+		int low = NAMES.indexOf(Character.toUpperCase(name.charAt(1)));
+		if (high < 0 || low < 0) {
+			throw new IllegalArgumentException("Not a starting hand : " + name);
+		}
+		if (high == low) {
+			if (name.length() != 2) {
+				throw new IllegalArgumentException("A pair has no color : " + name);
+			}
+			return high * VALUES + high;
+		}
+		if (high < low) {
+			int swap = high;
+			high = low;
+			low = swap;
+		}
+		if (name.length() != 3 || "so".indexOf(Character.toLowerCase(name.charAt(2))) < 0) {
+			throw new IllegalArgumentException("Say if the cards have the same color (s) or not (o) : " + name);
+		}
+		return Character.toLowerCase(name.charAt(2)) == 's' ? high * VALUES + low : low * VALUES + high;
+	}
+}
@@ -0,0 +1,115 @@
+package equity;
+
+/**
+ * Counts the outcomes of the first hand of a table, sample after sample. Used by
+ * a single worker, then turned into an <EquityResult>.
+ *
+ * When samples are not independent, the sampler also adds the mean share of
+ * each independent unit of samples (a pair of antithetic samples, a pass over
+ * every stratum...), and the variance of the equity is measured over the units.
+ */
+class Tally {
+	private long wins;
+	private long ties;
+	private long losses;
+	// sums of the shares won by ties, and of their squares
+	private double tieShare;
+	private double tieSquares;
+	private long units;
+	private double unitSum;
+	private double unitSquares;
+
+	/**
+	 * @param ranks   : the rank of every hand, the first one is the hand we count
+	 *                for
+	 * @param players : number of hands
+	 * @return the share of the pot won by the first hand
+	 */
+	double add(int[] ranks, int players) {
+		int best = 0;
+		int tied = 0;
+		for (int i = 1; i < players; i++) {
+			if (ranks[i] > best) {
+				best = ranks[i];
+				tied = 1;
+			} else if (ranks[i] == best) {
+				tied++;
+			}
+		}
+		if (ranks[0] > best) {
+			this.wins++;
+			return 1;
+		} else if (ranks[0] == best) {
+			double share = 1.0 / (tied + 1);
+			this.ties++;
+			this.tieShare += share;
+			this.tieSquares += share * share;
+			return share;
+		} else {
+			this.losses++;
+			return 0;
+		}
+	}
+
+	/**
+	 * @param share : the mean share of the pots won by the samples of a unit
+	 */
+	void addUnit(double share) {
+		this.units++;
+		this.unitSum += share;
+		this.unitSquares += share * share;
+	}
+
+	/**
+	 * Adds the counts of another tally
+	 */
+	void add(Tally other) {
+		this.wins += other.wins;
+		this.ties += other.ties;
+		this.losses += other.losses;
+		this.tieShare += other.tieShare;
+		this.tieSquares += other.tieSquares;
+		this.units += other.units;
+		this.unitSum += other.unitSum;
+		this.unitSquares += other.unitSquares;
+	}
+
+	void clear() {
+		this.wins = 0;
+		this.ties = 0;
+		this.losses = 0;
+		this.tieShare = 0;
+		this.tieSquares = 0;
+		this.units = 0;
+		this.unitSum = 0;
+		this.unitSquares = 0;
+	}
+
+	long samples() {
+		return this.wins + this.ties + this.losses;
+	}
+
+	/**
+	 * @return the sum of the shares of the pots won
+	 */
+	double sum() {
+		return this.wins + this.tieShare;
+	}
+
+	/**
+	 * @return the sum of the squares of the shares of the pots won
+	 */
+	double squares() {
+		return this.wins + this.tieSquares;
+	}
+
+	EquityResult toResult(long nanos) {
+		EquityResult result = new EquityResult(this.wins, this.ties, this.losses, this.tieShare, this.tieSquares,
+				nanos);
+		if (this.units == 0) {
+			return result;
+		}
+		double error = EquityResult.standardError(this.units, this.unitSum, this.unitSquares);
+		return result.withVariance(error * error);
+	}
+}
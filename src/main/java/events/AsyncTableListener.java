@@ -0,0 +1,197 @@
+package events;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Consumer;
+
+import classes.Card;
+import classes.Player;
+import classes.WinningCombination;
+
+/**
+ * Sends events to another listener on a thread of its own, so the game never
+ * waits for formatting or writing. The game thread only puts the arguments of
+ * each event in a queue. The writer thread takes the events by batches, gives
+ * them to the listener, then calls its <flush> once per batch.
+ *
+ * Lists are copied when the event is queued, since the table changes them, and
+ * so are combinations, which a pooled table fills again at the next deal. When
+ * the queue is full the game waits for the writer, so no event is lost, even if
+ * the game thread is interrupted. An exception thrown by the listener is given
+ * to the uncaught exception handler of the writer thread, which then goes on
+ * with the next event. <close> writes the events left and stops the thread.
+ */
+public class AsyncTableListener implements TableListener, AutoCloseable {
+	private static final int BATCH = 256;
+	// queued by close, the writer stops when it meets it
+	private static final Consumer<TableListener> END = listener -> {
+	};
+
+	private final TableListener listener;
+	private final BlockingQueue<Consumer<TableListener>> events;
+	private final Thread writer;
+	private volatile boolean closed;
+	// events the listener threw on, only written by the writer thread
+	private volatile long failures;
+
+	/**
+	 * @param listener : the listener to send the events to, only called by the
+	 *                 writer thread
+	 */
+	public AsyncTableListener(TableListener listener) {
+		this(listener, 4096);
+	}
+
+	/**
+	 * @param capacity : how many events can wait for the writer
+	 */
+	public AsyncTableListener(TableListener listener, int capacity) {
+		this.listener = listener;
+		this.events = new ArrayBlockingQueue<>(capacity);
+		this.writer = new Thread(this::write, "table-events");
+		// a game that ends without closing the listener doesn't keep the JVM alive
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * @return a listener writing to the console through a buffer, flushed after
+	 *         each batch
+	 */
+	public static AsyncTableListener console() {
+		PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16),
+				false);
+		return new AsyncTableListener(new ConsoleTableListener(out));
+	}
+
+	private void write() {
+		List<Consumer<TableListener>> batch = new ArrayList<>(BATCH);
+		try {
+			while (true) {
+				batch.add(this.events.take());
+				this.events.drainTo(batch, BATCH - 1);
+				for (Consumer<TableListener> event : batch) {
+					if (event == END) {
+						this.send(TableListener::flush);
+						return;
+					}
+					this.send(event);
+				}
+				this.send(TableListener::flush);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gives an event to the listener, a listener that throws doesn't stop the
+	 * writer
+	 */
+	private void send(Consumer<TableListener> event) {
+		try {
+			event.accept(this.listener);
+		} catch (RuntimeException e) {
+			this.failures++;
+			Thread writer = Thread.currentThread();
+			writer.getUncaughtExceptionHandler().uncaughtException(writer, e);
+		}
+	}
+
+	private void queue(Consumer<TableListener> event) {
+		if (this.closed) {
+			throw new IllegalStateException("The listener is closed");
+		}
+		// an interrupt doesn't drop the event, it's kept for the caller to see
+		boolean interrupted = false;
+		while (true) {
+			try {
+				this.events.put(event);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * @return the number of events the listener threw an exception on
+	 */
+	public long getFailures() {
+		return this.failures;
+	}
+
+	@Override
+	public void deal(long handSeed) {
+		this.queue(listener -> listener.deal(handSeed));
+	}
+
+	@Override
+	public void bet(Player player, int bet, int highestBet) {
+		this.queue(listener -> listener.bet(player, bet, highestBet));
+	}
+
+	@Override
+	public void fold(Player player) {
+		this.queue(listener -> listener.fold(player));
+	}
+
+	@Override
+	public void street(Street street, List<Card> board) {
+		List<Card> cards = List.copyOf(board);
+		this.queue(listener -> listener.street(street, cards));
+	}
+
+	@Override
+	public void showdown(Player player, List<Card> cards, WinningCombination combination) {
+		List<Card> copy = List.copyOf(cards);
+		WinningCombination combinationCopy = copy(combination);
+		this.queue(listener -> listener.showdown(player, copy, combinationCopy));
+	}
+
+	@Override
+	public void payout(Player player, int amount, WinningCombination combination) {
+		WinningCombination copy = copy(combination);
+		this.queue(listener -> listener.payout(player, amount, copy));
+	}
+
+	@Override
+	public void loss(Player player, int bet, WinningCombination combination) {
+		WinningCombination copy = copy(combination);
+		this.queue(listener -> listener.loss(player, bet, copy));
+	}
+
+	/**
+	 * @return a combination of the same rank, that the table won't change
+	 */
+	private static WinningCombination copy(WinningCombination combination) {
+		return combination == null ? null : new WinningCombination(combination.getRank());
+	}
+
+	/**
+	 * Writes the events left, then stops the writer thread
+	 */
+	@Override
+	public void close() {
+		if (this.closed) {
+			return;
+		}
+		this.queue(END);
+		this.closed = true;
+		try {
+			this.writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
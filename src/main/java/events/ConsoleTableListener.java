@@ -0,0 +1,74 @@
+package events;
+
+import java.io.PrintStream;
+import java.util.List;
+
+import classes.Card;
+import classes.Player;
+import classes.WinningCombination;
+
+/**
+ * Writes every event as text, to the console by default
+ */
+public class ConsoleTableListener implements TableListener {
+	private final PrintStream out;
+
+	public ConsoleTableListener() {
+		this(System.out);
+	}
+
+	public ConsoleTableListener(PrintStream out) {
+		this.out = out;
+	}
+
+	@Override
+	public void deal(long handSeed) {
+		this.out.println("Dealing hand " + handSeed);
+	}
+
+	@Override
+	public void bet(Player player, int bet, int highestBet) {
+		this.out.println(player.getName() + " is betting " + bet);
+	}
+
+	@Override
+	public void fold(Player player) {
+		this.out.println(player.getName() + " folds");
+	}
+
+	@Override
+	public void street(Street street, List<Card> board) {
+		if (street == Street.PREFLOP) {
+			// the dealer hand is still empty
+			return;
+		}
+		this.out.println("Dealer has the following hand :");
+		for (Card card : board) {
+			this.out.println(card);
+		}
+	}
+
+	@Override
+	public void showdown(Player player, List<Card> cards, WinningCombination combination) {
+		this.out.println(player.getName() + " has the hand: " + combination);
+		this.out.println(player.getName() + " has the following hand :");
+		for (Card card : cards) {
+			this.out.println(card);
+		}
+	}
+
+	@Override
+	public void payout(Player player, int amount, WinningCombination combination) {
+		this.out.println(player.getName() + " won " + amount + " with the hand " + combination);
+	}
+
+	@Override
+	public void loss(Player player, int bet, WinningCombination combination) {
+		this.out.println(player.getName() + " lost " + bet + " with the hand " + combination);
+	}
+
+	@Override
+	public void flush() {
+		this.out.flush();
+	}
+}
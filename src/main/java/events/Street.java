@@ -0,0 +1,9 @@
+package events;
+
+/**
+ * The betting rounds of a hand, named by the cards of the dealer hand they come
+ * after. PREFLOP is sent once the blinds are paid, with an empty dealer hand
+ */
+public enum Street {
+	PREFLOP, FLOP, TURN, RIVER;
+}
@@ -0,0 +1,78 @@
+package events;
+
+import java.util.List;
+
+import classes.Card;
+import classes.Player;
+import classes.WinningCombination;
+
+/**
+ * Receives what happens at a <PokerTable>, one method per kind of event. Every
+ * method does nothing by default, so a listener only overrides the events it
+ * cares about.
+ *
+ * Events are sent on the thread of the game, in the order they happen. Lists
+ * given to a listener belong to the table and change as the game goes on, so a
+ * listener that keeps them must copy them.
+ */
+public interface TableListener {
+	/**
+	 * Ignores every event, for simulations
+	 */
+	TableListener NONE = new TableListener() {
+	};
+
+	/**
+	 * A new hand is dealt
+	 *
+	 * @param handSeed : the seed of the hand, to deal it again with
+	 *                 <Deck.resetDeck(long)>
+	 */
+	default void deal(long handSeed) {
+	}
+
+	/**
+	 * A player put chips in : a blind, a call or a raise
+	 *
+	 * @param bet        : the bet of the player for the hand so far
+	 * @param highestBet : the highest bet of the table before this one
+	 */
+	default void bet(Player player, int bet, int highestBet) {
+	}
+
+	default void fold(Player player) {
+	}
+
+	/**
+	 * Cards were added to the dealer hand
+	 *
+	 * @param board : every card of the dealer hand
+	 */
+	default void street(Street street, List<Card> board) {
+	}
+
+	/**
+	 * A player still in the hand shows his cards
+	 */
+	default void showdown(Player player, List<Card> cards, WinningCombination combination) {
+	}
+
+	/**
+	 * A player won a pot, or his share of it if the pot is split
+	 */
+	default void payout(Player player, int amount, WinningCombination combination) {
+	}
+
+	/**
+	 * A player still in the hand at the showdown won no pot, and lost his bet
+	 */
+	default void loss(Player player, int bet, WinningCombination combination) {
+	}
+
+	/**
+	 * Called after a batch of events, so listeners that buffer their output can
+	 * write it
+	 */
+	default void flush() {
+	}
+}
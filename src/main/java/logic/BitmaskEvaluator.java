@@ -0,0 +1,318 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import classes.Card;
+import classes.CardColor;
+import classes.CardValue;
+import classes.DealerHand;
+import classes.PlayerHand;
+import classes.WinCondition;
+import classes.WinningCombination;
+
+/**
+ * Finds the <WinningCombination> of a hand encoded as a card mask. Every
+ * <CardColor> owns a 16-bit lane of a long, and every <CardValue> is a bit of
+ * that lane (TWO is bit 0, ACE is bit 12). Flushes, straights, pairs, threes
+ * and fours are then found with bit operations on the four 13-bit lanes, so
+ * evaluating a hand doesn't allocate anything.
+ */
+public final class BitmaskEvaluator {
+	/**
+	 * Mask of the 13 <CardValue> bits of a color lane
+	 */
+	public static final int RANKS = 0x1FFF;
+	private static final CardValue[] VALUES = CardValue.values();
+	private static final CardColor[] COLORS = CardColor.values();
+	private static final int ACE = CardValue.ACE.ordinal();
+
+	private BitmaskEvaluator() {
+	}
+
+	/**
+	 * Same contract as <WinConditionLogic.findWinningCombination>, computed on a
+	 * card mask instead of a list of cards.
+	 *
+	 * @param dealerHand : cards shared by every player
+	 * @param playerHand : cards of the player
+	 * @return a <WinningCombination> of the highest value in a hand
+	 */
+	public static WinningCombination findWinningCombination(DealerHand dealerHand, PlayerHand playerHand) {
+		return toWinningCombination(evaluate(dealerHand, cardMask(playerHand.getPlayerHand())));
+	}
+
+	/**
+	 * @param card a <Card>
+	 * @return the bit of the card in a card mask
+	 */
+	public static long cardBit(Card card) {
+		return card.getMask();
+	}
+
+	/**
+	 * @param cards a <Card> list
+	 * @return the card mask holding every card of the list
+	 */
+	public static long cardMask(List<Card> cards) {
+		long mask = 0;
+		// indexed loop, so we don't create an iterator
+		for (int i = 0; i < cards.size(); i++) {
+			mask |= cardBit(cards.get(i));
+		}
+		return mask;
+	}
+
+	/**
+	 * Evaluates a card mask of any number of cards.
+	 *
+	 * @param cards : a card mask
+	 * @return the rank of the hand, as packed by <WinningCombination>
+	 */
+	public static int evaluate(long cards) {
+		int s0 = (int) cards & RANKS;
+		int s1 = (int) (cards >>> 16) & RANKS;
+		int s2 = (int) (cards >>> 32) & RANKS;
+		int s3 = (int) (cards >>> 48) & RANKS;
+		// a value is in pairs if it appears in at least two colors, in trips if it
+		// appears in at least three colors, and in quads if it appears in all of them
+		int ranks = s0 | s1 | s2 | s3;
+		int pairs = (s0 & s1) | (s0 & s2) | (s0 & s3) | (s1 & s2) | (s1 & s3) | (s2 & s3);
+		int trips = (s0 & s1 & (s2 | s3)) | (s2 & s3 & (s0 | s1));
+		int quads = s0 & s1 & s2 & s3;
+		return rank(flush(cards), ranks, pairs, trips, quads);
+	}
+
+	/**
+	 * Evaluates the dealer hand and some more cards. Only the new cards are added
+	 * to the state kept by the <DealerHand>, and flushes are only looked for if
+	 * the dealer hand has enough cards of the same color.
+	 *
+	 * @param dealerHand : cards shared by every player
+	 * @param cards      : card mask of the player cards
+	 * @return the rank of the hand, as packed by <WinningCombination>
+	 */
+	public static int evaluate(DealerHand dealerHand, long cards) {
+		return evaluate(dealerHand.getCardMask(), dealerHand.getRankMask(), dealerHand.getPairMask(),
+				dealerHand.getTripsMask(), dealerHand.getQuadsMask(), dealerHand.getLongestColor(), cards);
+	}
+
+	/**
+	 * Evaluates the hands of several players against the same dealer hand. The
+	 * state of the dealer hand is read once, then each player only adds his cards
+	 * to it.
+	 *
+	 * @param dealerHand  : cards shared by every player
+	 * @param playerCards : card masks of the player cards
+	 * @param count       : how many players to evaluate
+	 * @param ranks       : receives the rank of each player
+	 */
+	public static void evaluateAll(DealerHand dealerHand, long[] playerCards, int count, int[] ranks) {
+		long board = dealerHand.getCardMask();
+		int boardRanks = dealerHand.getRankMask();
+		int boardPairs = dealerHand.getPairMask();
+		int boardTrips = dealerHand.getTripsMask();
+		int boardQuads = dealerHand.getQuadsMask();
+		int longestColor = dealerHand.getLongestColor();
+		for (int i = 0; i < count; i++) {
+			ranks[i] = evaluate(board, boardRanks, boardPairs, boardTrips, boardQuads, longestColor, playerCards[i]);
+		}
+	}
+
+	/**
+	 * Evaluates the dealer hand and the player cards, with each card of
+	 * <candidates> added in turn. The player cards are added to the state of the
+	 * <DealerHand> once, then each candidate only adds its own value.
+	 *
+	 * @param dealerHand : cards shared by every player
+	 * @param cards      : card mask of the player cards
+	 * @param candidates : card mask of the cards to try, not in the hand
+	 * @param ranks      : receives the rank with each candidate, in the order of
+	 *                   their bits
+	 * @return the number of candidates
+	 */
+	public static int evaluateEach(DealerHand dealerHand, long cards, long candidates, int[] ranks) {
+		int handRanks = dealerHand.getRankMask();
+		int pairs = dealerHand.getPairMask();
+		int trips = dealerHand.getTripsMask();
+		int quads = dealerHand.getQuadsMask();
+		for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+			int value = 1 << (Long.numberOfTrailingZeros(remaining) & 15);
+			quads |= trips & value;
+			trips |= pairs & value;
+			pairs |= handRanks & value;
+			handRanks |= value;
+		}
+		long hand = dealerHand.getCardMask() | cards;
+		boolean flushes = dealerHand.getLongestColor() + Long.bitCount(cards) + 1 >= 5;
+		int count = 0;
+		for (long remaining = candidates; remaining != 0; remaining &= remaining - 1) {
+			long card = remaining & -remaining;
+			int value = 1 << (Long.numberOfTrailingZeros(card) & 15);
+			int flush = flushes ? flush(hand | card) : 0;
+			ranks[count++] = rank(flush, handRanks | value, pairs | (handRanks & value), trips | (pairs & value),
+					quads | (trips & value));
+		}
+		return count;
+	}
+
+	private static int evaluate(long board, int ranks, int pairs, int trips, int quads, int longestColor,
+			long cards) {
+		for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+			int value = 1 << (Long.numberOfTrailingZeros(remaining) & 15);
+			quads |= trips & value;
+			trips |= pairs & value;
+			pairs |= ranks & value;
+			ranks |= value;
+		}
+		int flush = 0;
+		if (longestColor + Long.bitCount(cards) >= 5) {
+			flush = flush(board | cards);
+		}
+		return rank(flush, ranks, pairs, trips, quads);
+	}
+
+	/**
+	 * @param cards : a card mask
+	 * @return a new list with the shared instances of the cards of the mask
+	 */
+	public static ArrayList<Card> cards(long cards) {
+		ArrayList<Card> list = new ArrayList<>(Long.bitCount(cards));
+		for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+			int bit = Long.numberOfTrailingZeros(remaining);
+			list.add(Card.of(VALUES[bit & 15], COLORS[bit >>> 4]));
+		}
+		return list;
+	}
+
+	/**
+	 * @param cards : a card mask
+	 * @return the 13-bit set of values of the color with 5 cards or more, 0 if
+	 *         there's no flush
+	 */
+	static int flush(long cards) {
+		// at most one color can hold 5 cards out of 7
+		for (int shift = 0; shift < 64; shift += 16) {
+			int color = (int) (cards >>> shift) & RANKS;
+			if (Integer.bitCount(color) >= 5) {
+				return color;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Finds the rank of a hand from its flush and the values it holds
+	 *
+	 * @param flush : values of the flush color, 0 if there's no flush
+	 * @param ranks : values appearing at least once
+	 * @param pairs : values appearing at least twice
+	 * @param trips : values appearing at least three times
+	 * @param quads : values appearing four times
+	 * @return the rank of the hand, as packed by <WinningCombination>
+	 */
+	static int rank(int flush, int ranks, int pairs, int trips, int quads) {
+		if (flush != 0) {
+			int straightFlush = highestStraight(flush);
+			if (straightFlush == ACE) {
+				return condition(WinCondition.ROYAL_FLUSH) | ACE << 16;
+			}
+			if (straightFlush >= 0) {
+				return condition(WinCondition.STRAIGHT_FLUSH) | straightFlush << 16;
+			}
+		}
+		if (quads != 0) {
+			int four = highest(quads);
+			return condition(WinCondition.FOUR_OF_A_KIND) | four << 16 | highestValues(ranks & ~(1 << four), 1) << 12;
+		}
+		if (trips != 0) {
+			int three = highest(trips);
+			// the pair of a full house can also be a second three of a kind
+			int others = pairs & ~(1 << three);
+			if (others != 0) {
+				return condition(WinCondition.FULL_HOUSE) | three << 16 | highest(others) << 12;
+			}
+		}
+		if (flush != 0) {
+			return condition(WinCondition.FLUSH) | highestValues(flush, 5);
+		}
+		int straight = highestStraight(ranks);
+		if (straight >= 0) {
+			return condition(WinCondition.STRAIGHT) | straight << 16;
+		}
+		if (trips != 0) {
+			int three = highest(trips);
+			return condition(WinCondition.THREE_OF_A_KIND) | three << 16 | highestValues(ranks & ~(1 << three), 2) << 8;
+		}
+		if (Integer.bitCount(pairs) >= 2) {
+			int high = highest(pairs);
+			int low = highest(pairs & ~(1 << high));
+			return condition(WinCondition.TWO_PAIR) | high << 16 | low << 12
+					| highestValues(ranks & ~(1 << high | 1 << low), 1) << 8;
+		}
+		if (pairs != 0) {
+			int pair = highest(pairs);
+			return condition(WinCondition.PAIR) | pair << 16 | highestValues(ranks & ~(1 << pair), 3) << 4;
+		}
+		return condition(WinCondition.HIGH_CARD) | highestValues(ranks, 5);
+	}
+
+	/**
+	 * @param rank : a rank packed by <WinningCombination>
+	 * @return the <WinningCombination> it stands for
+	 */
+	public static WinningCombination toWinningCombination(int rank) {
+		return new WinningCombination(rank);
+	}
+
+	/**
+	 * Finds the highest straight in a set of values. The ACE is copied below the
+	 * TWO so ACE,TWO,THREE,FOUR,FIVE is found too.
+	 *
+	 * @param ranks : 13-bit set of values
+	 * @return the ordinal of the highest <CardValue> of the straight, -1 if
+	 *         there's no straight
+	 */
+	static int highestStraight(int ranks) {
+		int low = ranks << 1 | ranks >>> 12;
+		// a bit survives if it starts a run of 5 consecutive values
+		int runs = low & low >>> 1 & low >>> 2 & low >>> 3 & low >>> 4;
+		if (runs == 0) {
+			return -1;
+		}
+		// bit i of runs is a straight going from value i-1 to value i+3
+		return highest(runs) + 3;
+	}
+
+	/**
+	 * @param ranks : 13-bit set of values
+	 * @return the ordinal of the highest value in the set
+	 */
+	static int highest(int ranks) {
+		return 31 - Integer.numberOfLeadingZeros(ranks);
+	}
+
+	/**
+	 * Packs the highest values of a set, 4 bits each, the highest one first.
+	 * Missing values are left to 0.
+	 *
+	 * @param ranks : 13-bit set of values
+	 * @param count : how many values to pack
+	 */
+	static int highestValues(int ranks, int count) {
+		int values = 0;
+		for (int i = 0; i < count; i++) {
+			values <<= 4;
+			if (ranks != 0) {
+				int value = highest(ranks);
+				values |= value;
+				ranks &= ~(1 << value);
+			}
+		}
+		return values;
+	}
+
+	private static int condition(WinCondition condition) {
+		return condition.ordinal() << WinningCombination.CONDITION_SHIFT;
+	}
+}
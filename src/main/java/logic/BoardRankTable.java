@@ -0,0 +1,262 @@
+package logic;
+
+import java.util.Arrays;
+
+import classes.Card;
+
+/**
+ * The ranks of the 1326 combos of 2 cards on a complete board. Once the river
+ * is out every hand is the same 5 cards plus 2, so they are all evaluated once
+ * and sorted. A combo of cards a < b (see <Card.getIndex>) is numbered
+ * <b * (b - 1) / 2 + a>, like in <Range>.
+ *
+ * While sorting, the table counts for each combo the combos it beats and ties,
+ * leaving out the combos that share one of its cards. Its strength against a
+ * random hand is then a lookup, and the equity of a range against another one is
+ * a pass over the sorted combos with running sums of weights.
+ */
+public class BoardRankTable {
+	/**
+	 * Number of combos
+	 */
+	public static final int COMBOS = Card.COUNT * (Card.COUNT - 1) / 2;
+	private static final int[] FIRST = new int[COMBOS];
+	private static final int[] SECOND = new int[COMBOS];
+
+	static {
+		for (int second = 1; second < Card.COUNT; second++) {
+			for (int first = 0; first < second; first++) {
+				FIRST[combo(first, second)] = first;
+				SECOND[combo(first, second)] = second;
+			}
+		}
+	}
+
+	private final long board;
+	// -1 for the combos holding a card of the board
+	private final int[] ranks = new int[COMBOS];
+	// the combos that can be dealt, weakest first
+	private final short[] order;
+	// combos beaten and tied, among the combos not sharing a card
+	private final short[] wins = new short[COMBOS];
+	private final short[] ties = new short[COMBOS];
+	// combos not sharing a card with the board nor with one combo
+	private final int opponents;
+
+	/**
+	 * @param board : card mask of the 5 cards of the dealer hand
+	 */
+	public BoardRankTable(long board) {
+		if (Long.bitCount(board) != 5) {
+			throw new IllegalArgumentException("A rank table needs 5 cards, not " + Long.bitCount(board));
+		}
+		this.board = board;
+		int size = 0;
+		long[] sorted = new long[COMBOS];
+		for (int combo = 0; combo < COMBOS; combo++) {
+			long cards = cardMask(combo);
+			if ((cards & board) != 0) {
+				this.ranks[combo] = -1;
+				continue;
+			}
+			this.ranks[combo] = BitmaskEvaluator.evaluate(board | cards);
+			// the rank in the high bits sorts the combos, the combo is in the low bits
+			sorted[size++] = (long) this.ranks[combo] << 16 | combo;
+		}
+		Arrays.sort(sorted, 0, size);
+		this.order = new short[size];
+		for (int i = 0; i < size; i++) {
+			this.order[i] = (short) sorted[i];
+		}
+		int unseen = Card.COUNT - 5;
+		this.opponents = (unseen - 2) * (unseen - 3) / 2;
+		this.count();
+	}
+
+	/**
+	 * Goes through the combos by groups of equal rank, keeping the number of
+	 * weaker combos and of weaker combos holding each card
+	 */
+	private void count() {
+		int below = 0;
+		int[] cardBelow = new int[Card.COUNT];
+		int[] cardInGroup = new int[Card.COUNT];
+		for (int start = 0; start < this.order.length;) {
+			int end = start;
+			int rank = this.ranks[this.order[start]];
+			while (end < this.order.length && this.ranks[this.order[end]] == rank) {
+				cardInGroup[FIRST[this.order[end]]]++;
+				cardInGroup[SECOND[this.order[end]]]++;
+				end++;
+			}
+			for (int i = start; i < end; i++) {
+				int combo = this.order[i];
+				int first = FIRST[combo];
+				int second = SECOND[combo];
+				// no other combo holds both cards, so nothing is removed twice
+				this.wins[combo] = (short) (below - cardBelow[first] - cardBelow[second]);
+				this.ties[combo] = (short) (end - start - cardInGroup[first] - cardInGroup[second] + 1);
+			}
+			for (int i = start; i < end; i++) {
+				int combo = this.order[i];
+				cardBelow[FIRST[combo]]++;
+				cardBelow[SECOND[combo]]++;
+				cardInGroup[FIRST[combo]] = 0;
+				cardInGroup[SECOND[combo]] = 0;
+			}
+			below += end - start;
+			start = end;
+		}
+	}
+
+	/**
+	 * @return the combo of two different cards, from their <Card.getIndex>
+	 */
+	public static int combo(int first, int second) {
+		int a = Math.min(first, second);
+		int b = Math.max(first, second);
+		return b * (b - 1) / 2 + a;
+	}
+
+	/**
+	 * @param cards : card mask of 2 cards
+	 * @return their combo
+	 */
+	public static int combo(long cards) {
+		int first = Long.numberOfTrailingZeros(cards);
+		int second = 63 - Long.numberOfLeadingZeros(cards);
+		return combo((first >>> 4) * 13 + (first & 15), (second >>> 4) * 13 + (second & 15));
+	}
+
+	/**
+	 * @return the card mask of a combo
+	 */
+	public static long cardMask(int combo) {
+		return Card.get(FIRST[combo]).getMask() | Card.get(SECOND[combo]).getMask();
+	}
+
+	public long getBoard() {
+		return this.board;
+	}
+
+	/**
+	 * @return the rank of a combo with the board, as packed by
+	 *         <WinningCombination>, -1 if it holds a card of the board
+	 */
+	public int getRank(int combo) {
+		return this.ranks[combo];
+	}
+
+	/**
+	 * @return the number of combos that can be dealt with the board
+	 */
+	public int size() {
+		return this.order.length;
+	}
+
+	/**
+	 * @param position : 0 to <size> - 1
+	 * @return the combo at that position, weakest first
+	 */
+	public int getCombo(int position) {
+		return this.order[position];
+	}
+
+	/**
+	 * @return the number of combos a combo beats, among the ones that don't share
+	 *         a card with it
+	 */
+	public int getWins(int combo) {
+		return this.wins[combo];
+	}
+
+	/**
+	 * @return the number of combos a combo ties, among the ones that don't share a
+	 *         card with it
+	 */
+	public int getTies(int combo) {
+		return this.ties[combo];
+	}
+
+	/**
+	 * @return the number of hands an opponent can have once a combo is dealt, 990
+	 */
+	public int getOpponents() {
+		return this.opponents;
+	}
+
+	/**
+	 * @return the share of the hands of one opponent that a combo beats, ties
+	 *         counting for half : its equity against a random hand
+	 */
+	public double getPercentile(int combo) {
+		if (this.ranks[combo] < 0) {
+			throw new IllegalArgumentException("The combo holds a card of the board");
+		}
+		return (this.wins[combo] + this.ties[combo] / 2.0) / this.opponents;
+	}
+
+	/**
+	 * Equity of a range against another one on this board, with card removal : a
+	 * pair of combos sharing a card is never dealt.
+	 *
+	 * @param weights         : weight of each combo of the first range, 0 for the
+	 *                        combos that are not in it
+	 * @param opponentWeights : weight of each combo of the other range
+	 * @return the share of the pot won by the first range, ties counting for half,
+	 *         NaN if no pair of combos can be dealt
+	 */
+	public double equity(float[] weights, float[] opponentWeights) {
+		// total weight of the opponent combos, and the weight of those holding each
+		// card
+		double total = 0;
+		double[] cardTotal = new double[Card.COUNT];
+		for (short combo : this.order) {
+			total += opponentWeights[combo];
+			cardTotal[FIRST[combo]] += opponentWeights[combo];
+			cardTotal[SECOND[combo]] += opponentWeights[combo];
+		}
+		double below = 0;
+		double[] cardBelow = new double[Card.COUNT];
+		double[] cardInGroup = new double[Card.COUNT];
+		double won = 0;
+		double dealt = 0;
+		for (int start = 0; start < this.order.length;) {
+			int end = start;
+			int rank = this.ranks[this.order[start]];
+			double group = 0;
+			while (end < this.order.length && this.ranks[this.order[end]] == rank) {
+				int combo = this.order[end++];
+				group += opponentWeights[combo];
+				cardInGroup[FIRST[combo]] += opponentWeights[combo];
+				cardInGroup[SECOND[combo]] += opponentWeights[combo];
+			}
+			for (int i = start; i < end; i++) {
+				int combo = this.order[i];
+				float weight = weights[combo];
+				if (weight == 0) {
+					continue;
+				}
+				int first = FIRST[combo];
+				int second = SECOND[combo];
+				// the combo itself was removed twice, as it holds both cards
+				double same = opponentWeights[combo];
+				double beaten = below - cardBelow[first] - cardBelow[second];
+				double tied = group - cardInGroup[first] - cardInGroup[second] + same;
+				double available = total - cardTotal[first] - cardTotal[second] + same;
+				won += weight * (beaten + tied / 2);
+				dealt += weight * available;
+			}
+			for (int i = start; i < end; i++) {
+				int combo = this.order[i];
+				cardBelow[FIRST[combo]] += opponentWeights[combo];
+				cardBelow[SECOND[combo]] += opponentWeights[combo];
+				cardInGroup[FIRST[combo]] = 0;
+				cardInGroup[SECOND[combo]] = 0;
+			}
+			below += group;
+			start = end;
+		}
+		return won / dealt;
+	}
+}
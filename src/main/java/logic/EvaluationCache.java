@@ -0,0 +1,187 @@
+package logic;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size cache of hand ranks keyed by card mask, that can be put in front
+ * of <WinConditionLogic> with <WinConditionLogic.setCache>.
+ *
+ * Entries live in an open-addressed table of buckets of 4 slots. Each slot is
+ * two longs : the card mask, and the rank with a 32-bit checksum of the card
+ * mask above it. The checksum is the high half of the hash that picks the
+ * bucket. A read only trusts a slot if the checksum next to the rank is the one
+ * of the card mask, so threads can read and write the table at the same time
+ * without any lock : a slot half written by another thread, where the card mask
+ * and the rank come from two different entries, is seen as a miss. The
+ * checksum isn't an XOR of the two words, because card masks that differ by a
+ * few cards would often pass it. It's mixed from every bit of the card mask
+ * instead, so a torn slot only passes once in 2^32.
+ *
+ * When a bucket is full, a CLOCK hand picks the entry to replace : entries read
+ * since the last pass of the hand get a second chance.
+ */
+public class EvaluationCache {
+	private static final int WAYS = 4;
+	private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+
+	// card mask at 2 * slot, checksum << 32 | rank at 2 * slot + 1
+	private final long[] slots;
+	// 1 if the slot was read since the CLOCK hand last passed it
+	private final byte[] referenced;
+	// position of the CLOCK hand in each bucket
+	private final byte[] hands;
+	private final int bucketMask;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param entries : how many ranks the cache can hold, rounded up to a power of
+	 *                two
+	 */
+	public EvaluationCache(int entries) {
+		if (entries <= 0) {
+			throw new IllegalArgumentException("A cache needs at least one entry");
+		}
+		int buckets = Integer.highestOneBit(Math.max(1, (entries + WAYS - 1) / WAYS) * 2 - 1);
+		this.slots = new long[buckets * WAYS * 2];
+		this.referenced = new byte[buckets * WAYS];
+		this.hands = new byte[buckets];
+		this.bucketMask = buckets - 1;
+	}
+
+	/**
+	 * @return a cache with the size given by the <poker.evaluationCache> system
+	 *         property, null if it's not set
+	 */
+	public static EvaluationCache fromSystemProperty() {
+		String entries = System.getProperty("poker.evaluationCache");
+		if (entries == null) {
+			return null;
+		}
+		return new EvaluationCache(Integer.parseInt(entries.trim()));
+	}
+
+	/**
+	 * @param cards : a card mask, see <BitmaskEvaluator>
+	 * @return the rank of the hand, -1 if it's not in the cache
+	 */
+	public int get(long cards) {
+		long hash = hash(cards);
+		long checksum = hash & 0xFFFFFFFF00000000L;
+		int first = ((int) hash & this.bucketMask) * WAYS;
+		for (int slot = first; slot < first + WAYS; slot++) {
+			long key = (long) SLOTS.getOpaque(this.slots, 2 * slot);
+			long entry = (long) SLOTS.getOpaque(this.slots, 2 * slot + 1);
+			// an empty slot has no rank
+			if (key == cards && (entry & 0xFFFFFFFF00000000L) == checksum && (int) entry != 0) {
+				if (this.referenced[slot] == 0) {
+					this.referenced[slot] = 1;
+				}
+				this.hits.increment();
+				return (int) entry;
+			}
+		}
+		this.misses.increment();
+		return -1;
+	}
+
+	/**
+	 * Stores a rank, replacing the entry chosen by the CLOCK hand if the bucket
+	 * is full.
+	 *
+	 * @param cards : a card mask, see <BitmaskEvaluator>
+	 * @param rank  : the rank of the hand, as packed by <WinningCombination>
+	 */
+	public void put(long cards, int rank) {
+		// 0 marks an empty slot, and is the rank of no valid hand of 5 cards or more
+		if (rank <= 0) {
+			return;
+		}
+		long hash = hash(cards);
+		int bucket = (int) hash & this.bucketMask;
+		int first = bucket * WAYS;
+		int victim = -1;
+		for (int slot = first; slot < first + WAYS; slot++) {
+			long key = (long) SLOTS.getOpaque(this.slots, 2 * slot);
+			long stored = (long) SLOTS.getOpaque(this.slots, 2 * slot + 1);
+			if (stored == 0 || key == cards) {
+				victim = slot;
+				break;
+			}
+		}
+		if (victim < 0) {
+			// every entry gets a second chance, so the hand stops after two turns
+			int hand = this.hands[bucket];
+			for (int i = 0; i < 2 * WAYS; i++) {
+				int slot = first + ((hand + i) & (WAYS - 1));
+				if (this.referenced[slot] == 0) {
+					victim = slot;
+					hand += i + 1;
+					break;
+				}
+				this.referenced[slot] = 0;
+			}
+			if (victim < 0) {
+				victim = first + (hand & (WAYS - 1));
+				hand++;
+			}
+			this.hands[bucket] = (byte) (hand & (WAYS - 1));
+		}
+		this.referenced[victim] = 0;
+		SLOTS.setOpaque(this.slots, 2 * victim, cards);
+		SLOTS.setOpaque(this.slots, 2 * victim + 1, hash & 0xFFFFFFFF00000000L | rank);
+	}
+
+	public long getHits() {
+		return this.hits.sum();
+	}
+
+	public long getMisses() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * @return the share of reads that found their rank, 0 if nothing was read
+	 */
+	public double getHitRate() {
+		long hits = this.getHits();
+		long total = hits + this.getMisses();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * @return how many ranks the cache can hold
+	 */
+	public int capacity() {
+		return this.referenced.length;
+	}
+
+	/**
+	 * Removes every entry and resets the counters. Not to be called while other
+	 * threads use the cache.
+	 */
+	public void clear() {
+		Arrays.fill(this.slots, 0);
+		Arrays.fill(this.referenced, (byte) 0);
+		Arrays.fill(this.hands, (byte) 0);
+		this.hits.reset();
+		this.misses.reset();
+	}
+
+	/**
+	 * @return the bucket in the low bits, the checksum in the high 32 bits
+	 */
+	private static long hash(long cards) {
+		// murmur3 finalizer, card masks of close hands are very alike
+		long h = cards;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+}
@@ -0,0 +1,33 @@
+package logic;
+
+/**
+ * The implementations <WinConditionLogic> can use to find a
+ * <WinningCombination>. They all give the same results.
+ */
+public enum Evaluator {
+	/**
+	 * Scans the list of cards, see
+	 * <WinConditionLogic.findWinningCombinationByScanning>
+	 */
+	SCANNING,
+	/**
+	 * Bit operations on a card mask, see <BitmaskEvaluator>
+	 */
+	BITMASK,
+	/**
+	 * Precomputed tables, see <LookupTableEvaluator>
+	 */
+	LOOKUP_TABLE;
+
+	/**
+	 * @return the evaluator named by the <poker.evaluator> system property, or
+	 *         BITMASK
+	 */
+	public static Evaluator fromSystemProperty() {
+		String name = System.getProperty("poker.evaluator");
+		if (name == null) {
+			return BITMASK;
+		}
+		return valueOf(name.trim().toUpperCase());
+	}
+}
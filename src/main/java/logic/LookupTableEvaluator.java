@@ -0,0 +1,286 @@
+package logic;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import classes.DealerHand;
+import classes.PlayerHand;
+import classes.WinningCombination;
+
+/**
+ * Table-driven evaluator for hands of 5, 6 and 7 cards. Every <CardValue> gets a
+ * key such that the sum of the keys of a hand is unique among the hands of the
+ * same size that aren't flushes, so that sum is used directly as an index in a
+ * table of ranks. Flushes are found in a second table indexed by the
+ * 13-bit mask of the flush color. Ranks are the ones of <BitmaskEvaluator>.
+ *
+ * The tables take about 90MB. They are generated once, written to a file, and
+ * that file is memory-mapped by the next JVMs. The file is the one given by the
+ * <poker.rankTable> system property, or <pokerpoo-rank-table.bin> in the
+ * temporary directory.
+ */
+public final class LookupTableEvaluator {
+	/**
+	 * Key of each <CardValue>. The key of TWO is 0 : in a hand of a known size, the
+	 * number of TWO is given by the other cards. Sums of at most 7 keys from THREE
+	 * to ACE, each used at most 4 times, are all different.
+	 */
+	static final int[] RANK_KEYS = { 0, 1, 5, 24, 112, 521, 2247, 9244, 30823, 103066, 250154, 667453, 1526359 };
+
+	private static final int MAGIC = 0x504B5254;
+	// bump when the ranks of BitmaskEvaluator change, so old files are
+	// generated again
+	private static final int VERSION = 2;
+	private static final int HEADER = 4;
+	private static final int FLUSH_OFFSET = HEADER;
+	private static final int FLUSH_SIZE = 1 << 13;
+	private static final int MIN_CARDS = 5;
+	private static final int MAX_CARDS = 7;
+	// offsets of the tables of 5, 6 and 7 cards
+	private static final int[] OFFSETS = new int[MAX_CARDS + 2];
+
+	static {
+		OFFSETS[MIN_CARDS] = FLUSH_OFFSET + FLUSH_SIZE;
+		for (int size = MIN_CARDS; size <= MAX_CARDS; size++) {
+			OFFSETS[size + 1] = OFFSETS[size] + maxKey(size) + 1;
+		}
+	}
+
+	private LookupTableEvaluator() {
+	}
+
+	/**
+	 * Same contract as <WinConditionLogic.findWinningCombination>
+	 *
+	 * @param dealerHand : cards shared by every player
+	 * @param playerHand : cards of the player
+	 * @return a <WinningCombination> of the highest value in a hand
+	 */
+	public static WinningCombination findWinningCombination(DealerHand dealerHand, PlayerHand playerHand) {
+		long cards = dealerHand.getCardMask() | BitmaskEvaluator.cardMask(playerHand.getPlayerHand());
+		return BitmaskEvaluator.toWinningCombination(evaluate(cards));
+	}
+
+	/**
+	 * Evaluates a card mask. Hands of less than 5 cards are not in the tables and
+	 * are given to <BitmaskEvaluator>.
+	 *
+	 * @param cards : a card mask
+	 * @return the same rank as <BitmaskEvaluator.evaluate>
+	 */
+	public static int evaluate(long cards) {
+		int size = Long.bitCount(cards);
+		if (size < MIN_CARDS || size > MAX_CARDS) {
+			return BitmaskEvaluator.evaluate(cards);
+		}
+		int flush = BitmaskEvaluator.flush(cards);
+		if (flush != 0) {
+			return Table.RANKS.get(FLUSH_OFFSET + flush);
+		}
+		return Table.RANKS.get(OFFSETS[size] + rankKey(cards));
+	}
+
+	/**
+	 * Evaluates a hand from its key, for callers that keep the sum of
+	 * <RANK_KEYS> up to date themselves.
+	 *
+	 * @param cards : a card mask, only used to find flushes and the hand size
+	 * @param key   : the sum of the keys of the cards
+	 * @return the same rank as <BitmaskEvaluator.evaluate>
+	 */
+	public static int evaluate(long cards, int key) {
+		int size = Long.bitCount(cards);
+		if (size < MIN_CARDS || size > MAX_CARDS) {
+			return BitmaskEvaluator.evaluate(cards);
+		}
+		int flush = BitmaskEvaluator.flush(cards);
+		if (flush != 0) {
+			return Table.RANKS.get(FLUSH_OFFSET + flush);
+		}
+		return Table.RANKS.get(OFFSETS[size] + key);
+	}
+
+	/**
+	 * Evaluates the hands of several players against the same dealer hand. The key
+	 * of the dealer hand is only computed once.
+	 *
+	 * @param dealerHand  : cards shared by every player
+	 * @param playerCards : card masks of the player cards
+	 * @param count       : how many players to evaluate
+	 * @param ranks       : receives the rank of each player
+	 */
+	public static void evaluateAll(DealerHand dealerHand, long[] playerCards, int count, int[] ranks) {
+		long board = dealerHand.getCardMask();
+		int boardKey = rankKey(board);
+		for (int i = 0; i < count; i++) {
+			ranks[i] = evaluate(board | playerCards[i], boardKey + rankKey(playerCards[i]));
+		}
+	}
+
+	/**
+	 * @param cards : a card mask
+	 * @return the sum of the keys of the cards
+	 */
+	public static int rankKey(long cards) {
+		int key = 0;
+		for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+			key += RANK_KEYS[Long.numberOfTrailingZeros(remaining) & 15];
+		}
+		return key;
+	}
+
+	/**
+	 * Loads the tables now rather than on the first evaluation.
+	 */
+	public static void load() {
+		Table.RANKS.get(0);
+	}
+
+	/**
+	 * @return the file the tables are stored in
+	 */
+	public static Path tableFile() {
+		String path = System.getProperty("poker.rankTable");
+		if (path != null) {
+			return Paths.get(path);
+		}
+		return Paths.get(System.getProperty("java.io.tmpdir"), "pokerpoo-rank-table.bin");
+	}
+
+	private static int maxKey(int size) {
+		// the highest key is the one of as many ACE, then KING, etc... as possible
+		int key = 0;
+		for (int rank = RANK_KEYS.length - 1; size > 0; rank--) {
+			int count = Math.min(4, size);
+			key += count * RANK_KEYS[rank];
+			size -= count;
+		}
+		return key;
+	}
+
+	/**
+	 * Holds the mapped tables, so they are only loaded by the first evaluation
+	 */
+	private static final class Table {
+		static final IntBuffer RANKS = open(tableFile());
+
+		private static IntBuffer open(Path file) {
+			try {
+				IntBuffer ranks = map(file);
+				if (ranks != null) {
+					return ranks;
+				}
+				generate(file);
+				return map(file);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Could not load the rank table " + file, e);
+			}
+		}
+
+		/**
+		 * @return the mapped tables, null if the file is missing or outdated
+		 */
+		private static IntBuffer map(Path file) throws IOException {
+			if (!Files.isRegularFile(file) || Files.size(file) != OFFSETS[MAX_CARDS + 1] * 4L) {
+				return null;
+			}
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+				MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+				IntBuffer ranks = buffer.order(ByteOrder.nativeOrder()).asIntBuffer();
+				if (ranks.get(0) != MAGIC || ranks.get(1) != VERSION) {
+					return null;
+				}
+				return ranks;
+			}
+		}
+
+		/**
+		 * Writes the tables in a temporary file next to the table file, then moves
+		 * it in place so other JVMs never map a half-written file.
+		 */
+		private static void generate(Path file) throws IOException {
+			Path directory = file.toAbsolutePath().getParent();
+			Files.createDirectories(directory);
+			Path temporary = Files.createTempFile(directory, "rank-table", ".tmp");
+			try {
+				try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ,
+						StandardOpenOption.WRITE)) {
+					MappedByteBuffer buffer = channel.map(MapMode.READ_WRITE, 0, OFFSETS[MAX_CARDS + 1] * 4L);
+					IntBuffer ranks = buffer.order(ByteOrder.nativeOrder()).asIntBuffer();
+					ranks.put(0, MAGIC);
+					ranks.put(1, VERSION);
+					for (int flush = 0; flush < FLUSH_SIZE; flush++) {
+						if (Integer.bitCount(flush) >= MIN_CARDS) {
+							ranks.put(FLUSH_OFFSET + flush, BitmaskEvaluator.evaluate(flush));
+						}
+					}
+					for (int size = MIN_CARDS; size <= MAX_CARDS; size++) {
+						fill(ranks, size, new int[RANK_KEYS.length], 0, size);
+					}
+					buffer.force();
+				}
+				Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				Files.deleteIfExists(temporary);
+			}
+		}
+
+		/**
+		 * Fills the table of a size with every way to pick <remaining> more cards
+		 * from the values starting at <rank>, each value at most 4 times.
+		 */
+		private static void fill(IntBuffer ranks, int size, int[] counts, int rank, int remaining) {
+			if (remaining == 0) {
+				int index = OFFSETS[size] + key(counts);
+				int evaluation = BitmaskEvaluator.evaluate(spreadOverColors(counts));
+				if (ranks.get(index) != 0 && ranks.get(index) != evaluation) {
+					throw new IllegalStateException("RANK_KEYS are not unique for hands of " + size + " cards");
+				}
+				ranks.put(index, evaluation);
+				return;
+			}
+			if (rank == RANK_KEYS.length) {
+				return;
+			}
+			for (int count = Math.min(4, remaining); count >= 0; count--) {
+				counts[rank] = count;
+				fill(ranks, size, counts, rank + 1, remaining - count);
+			}
+			counts[rank] = 0;
+		}
+
+		private static int key(int[] counts) {
+			int key = 0;
+			for (int rank = 0; rank < counts.length; rank++) {
+				key += counts[rank] * RANK_KEYS[rank];
+			}
+			return key;
+		}
+
+		/**
+		 * Builds a card mask with the given values, giving each card the next color
+		 * so no color ends up with 5 cards.
+		 */
+		private static long spreadOverColors(int[] counts) {
+			long cards = 0;
+			int color = 0;
+			for (int rank = 0; rank < counts.length; rank++) {
+				for (int i = 0; i < counts[rank]; i++) {
+					cards |= 1L << (color << 4 | rank);
+					color = (color + 1) & 3;
+				}
+			}
+			return cards;
+		}
+	}
+}
@@ -0,0 +1,398 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Colors don't matter in themselves : swapping hearts and spades everywhere
+ * gives the same game. Situations that only differ by such a swap are grouped,
+ * for instance the 22100 flops make 1755 groups, so caches and tables keyed on
+ * a group are much smaller and hit much more often.
+ *
+ * A swap of colors is a permutation packed in an int : 2 bits per color, the
+ * new color of color c in bits 2c and 2c + 1. It is applied to a card mask
+ * (see <BitmaskEvaluator>) by moving the 16-bit lanes of the colors.
+ *
+ * <canonical> and <permutation> sort the lanes, which is cheap enough for inner
+ * loops. <boardIndex> and <index> give dense numbers to the groups, with tables
+ * built the first time a size of board is asked for, and can be turned back
+ * into cards.
+ */
+public final class SuitIsomorphism {
+	/**
+	 * The permutation that changes nothing
+	 */
+	public static final int IDENTITY = 0b11100100;
+	private static final int COLORS = 4;
+	private static final int VALUES = 13;
+	private static final int CARDS = COLORS * VALUES;
+	private static final long LANE = (1L << VALUES) - 1;
+	private static final int[][] CHOOSE = new int[CARDS + 1][6];
+	// kinds of player cards, each with the permutations that keep its canonical
+	// cards in place
+	private static final int NONE = 0;
+	private static final int PAIR = 1;
+	private static final int SUITED = 2;
+	private static final int OFFSUIT = 3;
+	private static final int[][] GROUPS = new int[4][];
+	// tables of board groups, by kind then board size, built on demand
+	private static final Groups[][] TABLES = new Groups[4][6];
+	// first index of each class of player cards, by board size. An array read
+	// from an AtomicReferenceArray is seen with what was written in it before
+	private static final AtomicReferenceArray<int[]> OFFSETS = new AtomicReferenceArray<>(6);
+
+	static {
+		for (int n = 0; n <= CARDS; n++) {
+			CHOOSE[n][0] = 1;
+			for (int k = 1; k < 6 && k <= n; k++) {
+				CHOOSE[n][k] = CHOOSE[n - 1][k - 1] + (k < n ? CHOOSE[n - 1][k] : 0);
+			}
+		}
+		int[] sizes = new int[4];
+		int[][] groups = new int[4][24];
+		for (int a = 0; a < COLORS; a++) {
+			for (int b = 0; b < COLORS; b++) {
+				for (int c = 0; c < COLORS; c++) {
+					int d = 6 - a - b - c;
+					if (a == b || a == c || b == c || d < 0 || d >= COLORS || d == a || d == b || d == c) {
+						continue;
+					}
+					int permutation = a | b << 2 | c << 4 | d << 6;
+					groups[NONE][sizes[NONE]++] = permutation;
+					if (a + b == 1) {
+						groups[PAIR][sizes[PAIR]++] = permutation;
+					}
+					if (a == 0) {
+						groups[SUITED][sizes[SUITED]++] = permutation;
+					}
+					if (a == 0 && b == 1) {
+						groups[OFFSUIT][sizes[OFFSUIT]++] = permutation;
+					}
+				}
+			}
+		}
+		for (int kind = 0; kind < 4; kind++) {
+			GROUPS[kind] = Arrays.copyOf(groups[kind], sizes[kind]);
+		}
+	}
+
+	private SuitIsomorphism() {
+	}
+
+	/**
+	 * @param permutation : a packed permutation
+	 * @param color       : the ordinal of a <CardColor>
+	 * @return the new color of <color>
+	 */
+	public static int target(int permutation, int color) {
+		return permutation >>> (color << 1) & 3;
+	}
+
+	/**
+	 * Moves the cards of each color to its new color
+	 *
+	 * @param permutation : a packed permutation
+	 * @param cards       : a card mask
+	 * @return the card mask once the colors are swapped
+	 */
+	public static long apply(int permutation, long cards) {
+		return (cards & LANE) << ((permutation & 3) << 4) | (cards >>> 16 & LANE) << ((permutation >>> 2 & 3) << 4)
+				| (cards >>> 32 & LANE) << ((permutation >>> 4 & 3) << 4)
+				| (cards >>> 48 & LANE) << ((permutation >>> 6 & 3) << 4);
+	}
+
+	/**
+	 * @return the permutation that undoes <permutation>
+	 */
+	public static int inverse(int permutation) {
+		int inverse = 0;
+		for (int color = 0; color < COLORS; color++) {
+			inverse |= color << (target(permutation, color) << 1);
+		}
+		return inverse;
+	}
+
+	/**
+	 * Finds the permutation that gives the canonical form of a situation : colors
+	 * are sorted by their player cards, then by their board cards, highest first.
+	 * Situations of the same group give the same canonical cards.
+	 *
+	 * @param hole  : card mask of the player cards
+	 * @param board : card mask of the dealer hand
+	 * @return the packed permutation
+	 */
+	public static int permutation(long hole, long board) {
+		// the key of a color, with the color in the lowest bits so keys are all
+		// different and the sort is stable
+		long k0 = key(hole, board, 0);
+		long k1 = key(hole, board, 1);
+		long k2 = key(hole, board, 2);
+		long k3 = key(hole, board, 3);
+		long t;
+		// sorting network for 4 keys, highest first
+		if (k0 < k1) { t = k0; k0 = k1; k1 = t; }
+		if (k2 < k3) { t = k2; k2 = k3; k3 = t; }
+		if (k0 < k2) { t = k0; k0 = k2; k2 = t; }
+		if (k1 < k3) { t = k1; k1 = k3; k3 = t; }
+		if (k1 < k2) { t = k1; k1 = k2; k2 = t; }
+		// the color of k0 goes to 0, which is no bit
+		return 1 << ((3 - (int) (k1 & 3)) << 1) | 2 << ((3 - (int) (k2 & 3)) << 1) | 3 << ((3 - (int) (k3 & 3)) << 1);
+	}
+
+	private static long key(long hole, long board, int color) {
+		return ((hole >>> (color << 4) & LANE) << VALUES | board >>> (color << 4) & LANE) << 2 | (3 - color);
+	}
+
+	/**
+	 * @param cards : a card mask, for instance the 7 cards of a player. Hand ranks
+	 *              don't change when colors are swapped, so they can be cached by
+	 *              canonical cards.
+	 * @return the cards of the group with the colors sorted, highest lane first
+	 */
+	public static long canonical(long cards) {
+		long a = cards & LANE;
+		long b = cards >>> 16 & LANE;
+		long c = cards >>> 32 & LANE;
+		long d = cards >>> 48 & LANE;
+		long t;
+		if (a < b) { t = a; a = b; b = t; }
+		if (c < d) { t = c; c = d; d = t; }
+		if (a < c) { t = a; a = c; c = t; }
+		if (b < d) { t = b; b = d; d = t; }
+		if (b < c) { t = b; b = c; c = t; }
+		return a | b << 16 | c << 32 | d << 48;
+	}
+
+	/**
+	 * @param hole  : card mask of the player cards
+	 * @param board : card mask of the dealer hand
+	 * @return the canonical player cards and board, in this order
+	 */
+	public static long[] canonical(long hole, long board) {
+		int permutation = permutation(hole, board);
+		return new long[] { apply(permutation, hole), apply(permutation, board) };
+	}
+
+	/**
+	 * @param board : card mask of 0 to 5 cards
+	 * @return the number of the group of the board, from 0 to
+	 *         <boardCount(size)> - 1
+	 */
+	public static int boardIndex(long board) {
+		return groups(NONE, Long.bitCount(board)).groups[colex(board)];
+	}
+
+	/**
+	 * @return the number of groups of boards of <size> cards, 1755 for flops
+	 */
+	public static int boardCount(int size) {
+		return groups(NONE, size).count;
+	}
+
+	/**
+	 * @return the canonical cards of a group of boards
+	 */
+	public static long fromBoardIndex(int size, int index) {
+		return canonical(groups(NONE, size).representatives[index]);
+	}
+
+	/**
+	 * Numbers the groups of 2 player cards and a board. The classes of player cards
+	 * are the 169 classes of <StartingHands>, in the same order. Each class then
+	 * numbers the boards that can't be told apart once its cards are in place.
+	 * Boards holding a player card keep their number, so a few numbers are never
+	 * given.
+	 *
+	 * @param hole  : card mask of 2 player cards
+	 * @param board : card mask of 0 to 5 cards
+	 * @return the number of the group, from 0 to <count(size)> - 1
+	 */
+	public static int index(long hole, long board) {
+		int first = Long.numberOfTrailingZeros(hole);
+		int second = 63 - Long.numberOfLeadingZeros(hole);
+		int firstColor = first >>> 4;
+		int secondColor = second >>> 4;
+		int firstValue = first & 15;
+		int secondValue = second & 15;
+		int kind;
+		int permutation;
+		if (firstValue == secondValue) {
+			kind = PAIR;
+			permutation = colorsFirst(firstColor, secondColor);
+		} else if (firstColor == secondColor) {
+			kind = SUITED;
+			permutation = colorsFirst(firstColor, firstColor == 0 ? 1 : 0);
+		} else if (firstValue > secondValue) {
+			kind = OFFSUIT;
+			permutation = colorsFirst(firstColor, secondColor);
+		} else {
+			kind = OFFSUIT;
+			permutation = colorsFirst(secondColor, firstColor);
+		}
+		int size = Long.bitCount(board);
+		int hand = startingHand(firstValue, secondValue, kind == SUITED);
+		return offsets(size)[hand] + groups(kind, size).groups[colex(apply(permutation, board))];
+	}
+
+	/**
+	 * @return the number of groups of 2 player cards and a board of <size> cards
+	 */
+	public static int count(int size) {
+		return offsets(size)[VALUES * VALUES];
+	}
+
+	/**
+	 * @return the canonical player cards of a group given by <index>
+	 */
+	public static long holeFromIndex(int size, int index) {
+		int hand = startingHandOf(size, index);
+		int high = Math.max(hand / VALUES, hand % VALUES);
+		int low = Math.min(hand / VALUES, hand % VALUES);
+		boolean suited = hand / VALUES > hand % VALUES;
+		return 1L << high | 1L << ((suited ? 0 : 16) + low);
+	}
+
+	/**
+	 * @return the board of a group given by <index>, with the colors of
+	 *         <holeFromIndex>
+	 */
+	public static long boardFromIndex(int size, int index) {
+		int hand = startingHandOf(size, index);
+		return groups(kind(hand), size).representatives[index - offsets(size)[hand]];
+	}
+
+	private static int startingHandOf(int size, int index) {
+		int[] offsets = offsets(size);
+		int hand = Arrays.binarySearch(offsets, index);
+		// several classes may start at the same offset only if some are empty, which
+		// never happens
+		return hand >= 0 ? hand : -hand - 2;
+	}
+
+	/**
+	 * @return the index of <StartingHands>
+	 */
+	private static int startingHand(int a, int b, boolean suited) {
+		int high = Math.max(a, b);
+		int low = Math.min(a, b);
+		if (high == low || suited) {
+			return high * VALUES + low;
+		}
+		return low * VALUES + high;
+	}
+
+	private static int kind(int hand) {
+		int a = hand / VALUES;
+		int b = hand % VALUES;
+		return a == b ? PAIR : a > b ? SUITED : OFFSUIT;
+	}
+
+	/**
+	 * @return a permutation sending color <a> to 0 and color <b> to 1
+	 */
+	private static int colorsFirst(int a, int b) {
+		int permutation = 0;
+		int next = 2;
+		for (int color = 0; color < COLORS; color++) {
+			int target = color == a ? 0 : color == b ? 1 : next++;
+			permutation |= target << (color << 1);
+		}
+		return permutation;
+	}
+
+	/**
+	 * @return the number of a set of cards in colexicographic order, cards being
+	 *         numbered by <Card.getIndex>
+	 */
+	private static int colex(long cards) {
+		int rank = 0;
+		int i = 1;
+		for (long remaining = cards; remaining != 0; remaining &= remaining - 1) {
+			int bit = Long.numberOfTrailingZeros(remaining);
+			rank += CHOOSE[(bit >>> 4) * VALUES + (bit & 15)][i++];
+		}
+		return rank;
+	}
+
+	private static int[] offsets(int size) {
+		int[] offsets = OFFSETS.get(size);
+		if (offsets == null) {
+			int[] filled = new int[VALUES * VALUES + 1];
+			for (int hand = 0; hand < VALUES * VALUES; hand++) {
+				filled[hand + 1] = filled[hand] + groups(kind(hand), size).count;
+			}
+			// another thread may have filled the same offsets, the first ones are kept
+			OFFSETS.compareAndSet(size, null, filled);
+			offsets = OFFSETS.get(size);
+		}
+		return offsets;
+	}
+
+	private static Groups groups(int kind, int size) {
+		if (size < 0 || size > 5) {
+			throw new IllegalArgumentException("A board has 0 to 5 cards, not " + size);
+		}
+		Groups groups = TABLES[kind][size];
+		if (groups == null) {
+			synchronized (TABLES) {
+				groups = TABLES[kind][size];
+				if (groups == null) {
+					groups = new Groups(GROUPS[kind], size);
+					TABLES[kind][size] = groups;
+				}
+			}
+		}
+		return groups;
+	}
+
+	/**
+	 * The groups of the boards of a size under some permutations : the number of
+	 * the group of each board, by colexicographic order, and the first board met
+	 * of each group.
+	 */
+	private static final class Groups {
+		final int[] groups;
+		final long[] representatives;
+		final int count;
+
+		Groups(int[] permutations, int size) {
+			this.groups = new int[CHOOSE[CARDS][size]];
+			Arrays.fill(this.groups, -1);
+			long[] representatives = new long[this.groups.length];
+			int count = 0;
+			int[] combination = new int[size];
+			for (int i = 0; i < size; i++) {
+				combination[i] = i;
+			}
+			for (int board = 0; board < this.groups.length; board++) {
+				if (this.groups[board] < 0) {
+					long cards = 0;
+					for (int card : combination) {
+						cards |= 1L << ((card / VALUES) << 4 | card % VALUES);
+					}
+					for (int permutation : permutations) {
+						this.groups[colex(apply(permutation, cards))] = count;
+					}
+					representatives[count++] = cards;
+				}
+				next(combination);
+			}
+			this.representatives = Arrays.copyOf(representatives, count);
+			this.count = count;
+		}
+
+		private static void next(int[] combination) {
+			int k = combination.length;
+			for (int i = 0; i < k; i++) {
+				int limit = i + 1 < k ? combination[i + 1] : CARDS;
+				if (combination[i] + 1 < limit) {
+					combination[i]++;
+					for (int j = 0; j < i; j++) {
+						combination[j] = j;
+					}
+					return;
+				}
+			}
+		}
+	}
+}
@@ -1,6 +1,7 @@
 package logic;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -16,10 +17,51 @@ import classes.WinCondition;
 import classes.WinningCombination;
 
 public class WinConditionLogic {
+	private static volatile Evaluator evaluator = Evaluator.fromSystemProperty();
+	private static volatile EvaluationCache cache = EvaluationCache.fromSystemProperty();
+
+	/**
+	 * @return the <Evaluator> used by <findWinningCombination>
+	 */
+	public static Evaluator getEvaluator() {
+		return evaluator;
+	}
+
+	/**
+	 * Changes the <Evaluator> used by <findWinningCombination>. Loads the tables
+	 * now if it's LOOKUP_TABLE, so the first evaluation doesn't pay for it.
+	 * 
+	 * @param evaluator : the new <Evaluator>
+	 */
+	public static void setEvaluator(Evaluator evaluator) {
+		if (evaluator == Evaluator.LOOKUP_TABLE) {
+			LookupTableEvaluator.load();
+		}
+		WinConditionLogic.evaluator = evaluator;
+	}
+
+	/**
+	 * @return the <EvaluationCache> in front of the <Evaluator>, null if there's
+	 *         none
+	 */
+	public static EvaluationCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Puts a cache in front of the <Evaluator>. Ranks don't depend on the
+	 * <Evaluator>, so the cache can be kept when it's changed.
+	 * 
+	 * @param cache : the new <EvaluationCache>, null to remove it
+	 */
+	public static void setCache(EvaluationCache cache) {
+		WinConditionLogic.cache = cache;
+	}
 
 	/**
 	 * Finds the highest <WinningCombination> for a hand. Will be used on any hand
-	 * of length >=2 (by default each player gets 2 cards.)
+	 * of length >=2 (by default each player gets 2 cards.) The work is done by the
+	 * current <Evaluator>.
 	 * 
 	 * @param dealerHand : The dealerHand is updated after the turn,river and flop
 	 * @param playerHand : The playerHand is updated when cards are dealt
@@ -27,6 +69,113 @@ public class WinConditionLogic {
 	 */
 
 	public static WinningCombination findWinningCombination(DealerHand dealerHand, PlayerHand playerHand) {
+		if (evaluator == Evaluator.SCANNING && cache == null) {
+			return findWinningCombinationByScanning(dealerHand, playerHand);
+		}
+		return new WinningCombination(findHandRank(dealerHand, playerHand));
+	}
+
+	/**
+	 * Same as <findWinningCombination>, without building the
+	 * <WinningCombination>. The dealer hand is not evaluated again : the player
+	 * cards are added to the state it keeps up to date.
+	 * 
+	 * @param dealerHand : The dealerHand is updated after the turn,river and flop
+	 * @param playerHand : The playerHand is updated when cards are dealt
+	 * @return the rank of the hand, as packed by <WinningCombination>
+	 */
+	public static int findHandRank(DealerHand dealerHand, PlayerHand playerHand) {
+		long playerCards = BitmaskEvaluator.cardMask(playerHand.getPlayerHand());
+		EvaluationCache cache = WinConditionLogic.cache;
+		if (cache == null) {
+			return evaluate(dealerHand, playerCards);
+		}
+		return evaluate(cache, dealerHand, playerCards);
+	}
+
+	private static int evaluate(EvaluationCache cache, DealerHand dealerHand, long playerCards) {
+		// hands that only differ by their colors share an entry
+		long cards = SuitIsomorphism.canonical(dealerHand.getCardMask() | playerCards);
+		int rank = cache.get(cards);
+		if (rank < 0) {
+			rank = evaluate(dealerHand, playerCards);
+			cache.put(cards, rank);
+		}
+		return rank;
+	}
+
+	private static int evaluate(DealerHand dealerHand, long playerCards) {
+		switch (evaluator) {
+		case SCANNING:
+			PlayerHand playerHand = new PlayerHand(BitmaskEvaluator.cards(playerCards));
+			return findWinningCombinationByScanning(dealerHand, playerHand).getRank();
+		case LOOKUP_TABLE:
+			return LookupTableEvaluator.evaluate(dealerHand.getCardMask() | playerCards);
+		default:
+			return BitmaskEvaluator.evaluate(dealerHand, playerCards);
+		}
+	}
+
+	/**
+	 * Finds the ranks of several players against the same dealer hand. The dealer
+	 * hand is only digested once, then only the cards of each player are added.
+	 * 
+	 * @param dealerHand  : the cards shared by every player
+	 * @param playerHands : the hands of the players
+	 * @return the ranks, in the order of the hands, as packed by
+	 *         <WinningCombination>
+	 */
+	public static int[] findHandRanks(DealerHand dealerHand, PlayerHand[] playerHands) {
+		long[] playerCards = new long[playerHands.length];
+		for (int i = 0; i < playerHands.length; i++) {
+			playerCards[i] = BitmaskEvaluator.cardMask(playerHands[i].getPlayerHand());
+		}
+		int[] ranks = new int[playerHands.length];
+		findHandRanks(dealerHand, playerCards, playerHands.length, ranks);
+		return ranks;
+	}
+
+	/**
+	 * Same as <findHandRanks>, on card masks and with an array given by the
+	 * caller, so simulations can evaluate a table without allocating anything.
+	 * 
+	 * @param dealerHand  : the cards shared by every player
+	 * @param playerCards : the card mask of each player, see <BitmaskEvaluator>
+	 * @param count       : how many players to evaluate
+	 * @param ranks       : receives the rank of each player
+	 */
+	public static void findHandRanks(DealerHand dealerHand, long[] playerCards, int count, int[] ranks) {
+		EvaluationCache cache = WinConditionLogic.cache;
+		if (cache != null) {
+			for (int i = 0; i < count; i++) {
+				ranks[i] = evaluate(cache, dealerHand, playerCards[i]);
+			}
+			return;
+		}
+		switch (evaluator) {
+		case SCANNING:
+			for (int i = 0; i < count; i++) {
+				ranks[i] = evaluate(dealerHand, playerCards[i]);
+			}
+			break;
+		case LOOKUP_TABLE:
+			LookupTableEvaluator.evaluateAll(dealerHand, playerCards, count, ranks);
+			break;
+		default:
+			BitmaskEvaluator.evaluateAll(dealerHand, playerCards, count, ranks);
+		}
+	}
+
+	/**
+	 * Finds the highest <WinningCombination> for a hand by scanning the merged
+	 * list of cards. Gives the same results as <BitmaskEvaluator>, but allocates
+	 * lists and maps on every call. It is kept as a reference implementation.
+	 * 
+	 * @param dealerHand : The dealerHand is updated after the turn,river and flop
+	 * @param playerHand : The playerHand is updated when cards are dealt
+	 * @return a <WinningCombination> of the highest value in a hand
+	 */
+	public static WinningCombination findWinningCombinationByScanning(DealerHand dealerHand, PlayerHand playerHand) {
 		List<Card> consideredHand = new ArrayList<>();
 
 		for (Card card : dealerHand.getDealerHand()) {
@@ -37,27 +186,32 @@ public class WinConditionLogic {
 		}
 		// We will check for the highest values of WinningCombination first.
 
-		// check for royal flush and straight flush :
-		WinningCombination straight = straight(consideredHand);
-		WinningCombination flush = flush(consideredHand);
-		if (flush != null && straight != null) {
+		// check for royal flush and straight flush : the straight has to be made
+		// of the cards of the flush color only
+		CardColor flushColor = findFlushColor(consideredHand);
+		if (flushColor != null) {
+			WinningCombination straightFlush = straight(cardsOfColor(consideredHand, flushColor));
 			// check for royal flush:
-			if (flush.getCardValue() == CardValue.ACE) {
+			if (straightFlush != null && straightFlush.getCardValue() == CardValue.ACE) {
 				return new WinningCombination(WinCondition.ROYAL_FLUSH, CardValue.ACE);
 			}
 			// else we only have a straight flush
-			return new WinningCombination(WinCondition.STRAIGHT_FLUSH, flush.getCardValue());
+			if (straightFlush != null) {
+				return new WinningCombination(WinCondition.STRAIGHT_FLUSH, straightFlush.getCardValue());
+			}
 		}
-		// check for a fullHouse :
+		// check for a four of a kind and a fullHouse :
 		WinningCombination multipleCards = findMultipleCardsAndFullHouse(consideredHand);
-		if (multipleCards != null && multipleCards.getWinCondition() == WinCondition.FULL_HOUSE) {
+		if (multipleCards != null && (multipleCards.getWinCondition() == WinCondition.FOUR_OF_A_KIND
+				|| multipleCards.getWinCondition() == WinCondition.FULL_HOUSE)) {
 			return multipleCards;
 		}
 		// check for a flush
-		if (flush != null) {
-			return flush;
+		if (flushColor != null) {
+			return flush(consideredHand, flushColor);
 		}
 		// check for a straight
+		WinningCombination straight = straight(consideredHand);
 		if (straight != null) {
 			return straight;
 		}
@@ -67,7 +221,7 @@ public class WinConditionLogic {
 			return multipleCards;
 		}
 		// If we have none of the above, we only have a High Card :(
-		return new WinningCombination(WinCondition.HIGH_CARD, findHighestCardInCardList(consideredHand));
+		return withKickers(consideredHand, 5, WinCondition.HIGH_CARD);
 	}
 
 	/**
@@ -75,10 +229,10 @@ public class WinConditionLogic {
 	 * player hands
 	 * 
 	 * @param hand
-	 * @return null if there's no flush, and a WinningCombination with the highest
-	 *         card from the flush if there is a flush.
+	 * @return null if there's no flush, and the color of the flush if there is a
+	 *         flush.
 	 */
-	private static WinningCombination flush(List<Card> hand) {
+	private static CardColor findFlushColor(List<Card> hand) {
 		Map<CardColor, Integer> colors = new HashMap<>();
 		// count the cards for each color
 		for (Card card : hand) {
@@ -91,16 +245,8 @@ public class WinConditionLogic {
 		for (CardColor color : colors.keySet()) {
 			// if we have at least 5 cards of the same color
 			if (colors.get(color) >= 5) {
-				// find the highest card of that color
-				CardColor flushColor = color;
-				CardValue maxCard = CardValue.TWO;
-				for (Card card : hand) {
-					if (card.getCardColor() == flushColor && card.getCardValue().compare(maxCard) > 0) {
-						maxCard = card.getCardValue();
-					}
-				}
 				// return as soon as we find the right color
-				return new WinningCombination(WinCondition.FLUSH, maxCard);
+				return color;
 			}
 		}
 		return null;
@@ -108,8 +254,34 @@ public class WinConditionLogic {
 	}
 
 	/**
-	 * Finds wether or not our hand has a straight. This method needs to be updated
-	 * to support ACE,TWO,THREE,FOUR,FIVE straights.
+	 * Builds the flush of a given color
+	 * 
+	 * @param hand       : dealer and player hand merged
+	 * @param flushColor : the color found by <findFlushColor>
+	 * @return a WinningCombination with the 5 highest cards from the flush
+	 */
+	private static WinningCombination flush(List<Card> hand, CardColor flushColor) {
+		return withKickers(cardsOfColor(hand, flushColor), 5, WinCondition.FLUSH);
+	}
+
+	/**
+	 * @param hand  : dealer and player hand merged
+	 * @param color : a <CardColor>
+	 * @return the cards of the hand that are of the given color
+	 */
+	private static List<Card> cardsOfColor(List<Card> hand, CardColor color) {
+		List<Card> cards = new ArrayList<>();
+		for (Card card : hand) {
+			if (card.getCardColor() == color) {
+				cards.add(card);
+			}
+		}
+		return cards;
+	}
+
+	/**
+	 * Finds wether or not our hand has a straight. An ACE can be used below the
+	 * TWO for ACE,TWO,THREE,FOUR,FIVE straights.
 	 * 
 	 * @param hand : dealer and player hand merged
 	 * @return <null> if we have no straight, a <WinningCombination> with a straight
@@ -117,36 +289,47 @@ public class WinConditionLogic {
 	 *         otherwise.
 	 */
 	private static WinningCombination straight(List<Card> hand) {
-		boolean flag = false;
-		int buffer = 1;
+		if (hand.isEmpty()) {
+			return null;
+		}
 		// sort hand by increasing cardValue 
 		Comparator<Card> comparator = (Card c1, Card c2) -> c1.getCardValue().compare(c2.getCardValue());
 		Collections.sort(hand, comparator);
 
 		// There's up to 7 cards in a hand, but a straight is 5 cards. We have to be
 		// careful about how we proceed.
-		int highestCardIndex = 0;
+		int buffer = 1;
+		// an ACE (the last card once sorted) also counts as the card before a TWO
+		if (hand.get(0).getCardValue() == CardValue.TWO
+				&& hand.get(hand.size() - 1).getCardValue() == CardValue.ACE) {
+			buffer = 2;
+		}
+		CardValue highestCard = null;
 		for (int i = 0; i < hand.size() - 1; i++) {
+			CardValue current = hand.get(i).getCardValue();
+			CardValue next = hand.get(i + 1).getCardValue();
+			// a pair in the middle of a straight doesn't break it
+			if (current == next) {
+				continue;
+			}
 			// check if the next CardValue is equal to the value of the next card
-			if (hand.get(i).getCardValue().getNext() == hand.get(i + 1).getCardValue()) {
+			if (current.getNext() == next) {
 				buffer++;
 			} else { // reset the buffer if it's not.
 				buffer = 1;
 			}
 			// Since we sorted the hand beforehand, when buffer>=5, the highest card from
-			// the straight will be at index i+1. It works even if we have 7 straight cards,
+			// the straight is the next card. It works even if we have 7 straight cards,
 			// this is why we use buffer>=5 instead of buffer==5.
 			if (buffer >= 5) {
-				flag = true;
-				highestCardIndex = i + 1;
-				//
+				highestCard = next;
 			}
 		}
 
-		// flag tells us if we found a straight. We can't use buffer as a flag
+		// highestCard tells us if we found a straight. We can't use buffer as a flag
 		// because of some cases (e.g. a 2 3 4 5 6 QUEEN KING sorted hand)
-		if (flag) {
-			return new WinningCombination(WinCondition.STRAIGHT, hand.get(highestCardIndex).getCardValue());
+		if (highestCard != null) {
+			return new WinningCombination(WinCondition.STRAIGHT, highestCard);
 		}
 		return null;
 	}
@@ -167,7 +350,7 @@ public class WinConditionLogic {
 			for (Card card : hand.subList(i + 1, hand.size())) {
 				// check if we already checked for multiple cards on the current card
 				// before checking for equality for optimisation
-				if (!hasBeenChecked.contains(card.getCardValue()) && card.equals(hand.get(i))) {
+				if (!hasBeenChecked.contains(card.getCardValue()) && card.getCardValue() == hand.get(i).getCardValue()) {
 					Integer hasBeenPut = multipleCards.putIfAbsent(hand.get(i).getCardValue(), 2);
 					if (hasBeenPut != null) {
 						multipleCards.put(hand.get(i).getCardValue(),
@@ -197,7 +380,7 @@ public class WinConditionLogic {
 				break;
 			case 4: // if we found 4 cards that are the same, we found the highest
 					// possible hand in the set of WinConditions we're checking for.
-				return new WinningCombination(WinCondition.FOUR_OF_A_KIND, cardValue);
+				return withKickers(hand, 1, WinCondition.FOUR_OF_A_KIND, cardValue);
 
 			}
 		}
@@ -205,22 +388,35 @@ public class WinConditionLogic {
 		// in our hand, because the lists associated are empty
 		CardValue maxPair = findHighestCard(pairs);
 		CardValue maxThrees = findHighestCard(threes);
-		// if there's a pair and a three of a kind, we have a fullhouse!
-		if (maxPair != null && maxThrees != null) {
-			CardValue maxCard = maxPair.max(maxThrees);
-			return new WinningCombination(WinCondition.FULL_HOUSE, maxCard);
+		// if there's a pair and a three of a kind, or two three of a kind, we have a
+		// fullhouse!
+		if (maxThrees != null && (maxPair != null || threes.size() >= 2)) {
+			// the pair of the fullhouse is the highest pair or other three of a kind
+			CardValue fullHousePair = maxPair;
+			for (WinningCombination three : threes) {
+				if (three.getCardValue() != maxThrees) {
+					fullHousePair = three.getCardValue().max(fullHousePair);
+				}
+			}
+			return withKickers(hand, 0, WinCondition.FULL_HOUSE, maxThrees, fullHousePair);
 		}
 		// else, the next highest hand could be a THREE OF A KIND!
 		if (maxThrees != null) {
-			return new WinningCombination(WinCondition.THREE_OF_A_KIND, maxThrees);
+			return withKickers(hand, 2, WinCondition.THREE_OF_A_KIND, maxThrees);
 		}
 		// else, it could be TWO PAIRS!
 		if (maxPair != null && pairs.size() >= 2) {
-			return new WinningCombination(WinCondition.TWO_PAIR, maxPair);
+			CardValue secondPair = null;
+			for (WinningCombination pair : pairs) {
+				if (pair.getCardValue() != maxPair) {
+					secondPair = pair.getCardValue().max(secondPair);
+				}
+			}
+			return withKickers(hand, 1, WinCondition.TWO_PAIR, maxPair, secondPair);
 		}
 		// else it could be a PAIR!
 		if (maxPair != null) {
-			return new WinningCombination(WinCondition.PAIR, maxPair);
+			return withKickers(hand, 3, WinCondition.PAIR, maxPair);
 		}
 		// else, we don't have a pair, two pairs, three of a kind,
 		// fullhouse, or four of a kind.
@@ -244,18 +440,29 @@ public class WinConditionLogic {
 	}
 
 	/**
-	 * Finds the highest card in a <Card> list.
+	 * Builds a <WinningCombination> from the values of the combination, followed
+	 * by the highest other values of the hand as kickers.
 	 * 
-	 * @param cardList a <Card> list
-	 * @return the highest <CardValue> of the cards in the list
+	 * @param hand    : the combination of a player hand and a dealer hand
+	 * @param kickers : how many kickers to add
+	 * @param wc      : the <WinCondition> of the hand
+	 * @param values  : the values of the combination, the most important first
+	 * @return the <WinningCombination>
 	 */
-	private static CardValue findHighestCardInCardList(List<Card> cardList) {
-		CardValue maxValue = null;
-		for (Card card : cardList) {
-			if (card.getCardValue().compare(maxValue) > 0) {
-				maxValue = card.getCardValue();
+	private static WinningCombination withKickers(List<Card> hand, int kickers, WinCondition wc,
+			CardValue... values) {
+		List<CardValue> allValues = new ArrayList<>(Arrays.asList(values));
+		List<CardValue> others = new ArrayList<>();
+		for (Card card : hand) {
+			if (!allValues.contains(card.getCardValue()) && !others.contains(card.getCardValue())) {
+				others.add(card.getCardValue());
 			}
 		}
-		return maxValue;
+		// sort by decreasing cardValue
+		others.sort((CardValue v1, CardValue v2) -> v2.compare(v1));
+		for (int i = 0; i < kickers && i < others.size(); i++) {
+			allValues.add(others.get(i));
+		}
+		return new WinningCombination(WinningCombination.rank(wc, allValues.toArray(new CardValue[0])));
 	}
 }
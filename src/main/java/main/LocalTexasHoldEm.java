@@ -22,7 +22,8 @@ public class LocalTexasHoldEm {
 		playerList.add(p4);
 		PokerTableAutomatisee table = new PokerTableAutomatisee(playerList);
 		while (table.howManyAreStillPlaying() > 1) {
-			table.startTurnWithPots();
+			// the hand goes on as the decisions come, main only waits for its end
+			table.startHand().join();
 			System.out.println(p1.getName() + ": " + p1.getChipStack());
 			System.out.println(p2.getName() + ": " + p2.getChipStack());
 			System.out.println(p3.getName() + ": " + p2.getChipStack());
@@ -0,0 +1,68 @@
+package main;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+
+import classes.Decision;
+import classes.DecisionSource;
+import classes.Player;
+import classes.PokerTable;
+import events.TableListener;
+
+/**
+ * Measures what a <PokerTable> allocates per deal, pooled and not, with 9
+ * players that always call and no listener. Needs a JVM that counts the bytes
+ * allocated by a thread, like HotSpot, and gives the figures once the JIT has
+ * warmed up, so it's not run with the tests.
+ *
+ * java main.PooledTableBenchmark [deals]
+ */
+public class PooledTableBenchmark {
+
+	public static void main(String[] args) {
+		int deals = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)
+				|| !((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()) {
+			System.out.println("This JVM doesn't count the bytes allocated by a thread");
+			return;
+		}
+		for (boolean pooled : new boolean[] { false, true }) {
+			System.out.println((pooled ? "pooled: " : "not pooled: ")
+					+ bytesPerDeal((com.sun.management.ThreadMXBean) threads, pooled, deals) + " bytes per deal");
+		}
+	}
+
+	private static long bytesPerDeal(com.sun.management.ThreadMXBean threads, boolean pooled, int deals) {
+		List<Player> players = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			players.add(new Player("Player " + i, 1000000));
+		}
+		PokerTable table = new PokerTable(players, new SplittableRandom(42));
+		table.setPooled(pooled);
+		table.setListener(TableListener.NONE);
+		CompletableFuture<Decision> call = CompletableFuture.completedFuture(Decision.call());
+		DecisionSource alwaysCall = (player, highestBet) -> call;
+		table.setDecisionSource(alwaysCall);
+		long thread = Thread.currentThread().getId();
+		long allocated = 0;
+		// the first rounds warm the JIT up, only the last one counts
+		for (int round = 0; round < 6; round++) {
+			allocated = threads.getThreadAllocatedBytes(thread);
+			for (int deal = 0; deal < deals; deal++) {
+				// the blinds go up every 5 deals, so the stacks are filled again
+				for (int i = 0; i < players.size(); i++) {
+					players.get(i).setChipStack(1000000);
+				}
+				table.startTurnWithPots();
+			}
+			allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+		}
+		return allocated / deals;
+	}
+
+}
@@ -0,0 +1,308 @@
+package holdEm;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import classes.Card;
+import classes.CardColor;
+import classes.CardValue;
+import classes.DealerHand;
+import classes.Deck;
+import classes.PlayerHand;
+import classes.WinCondition;
+import equity.EquityCalculator;
+import equity.EquityResult;
+import equity.MultiwayEquity;
+import equity.Outs;
+import equity.PreflopTable;
+import equity.Range;
+import equity.RangeEquity;
+import equity.SamplingMode;
+import equity.StartingHands;
+
+class EquityCalculatorTest {
+
+	@Test
+	/**
+	 * A pair of aces wins about 85% of the time against one random hand
+	 */
+	void acesMonteCarloTest() {
+		EquityResult result = new EquityCalculator(
+				List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.ACE, CardColor.HEART)), List.of(), 1)
+				.setSeed(1).calculate(200000);
+		assertEquals(result.getSamples(), 200000L);
+		assertEquals(result.getEquity(), 0.852, 0.005);
+	}
+
+	@Test
+	/**
+	 * The same seed and the same number of workers give the same result
+	 */
+	void sameSeedSameResultTest() {
+		EquityCalculator calculator = new EquityCalculator(
+				List.of(Card.of(CardValue.SEVEN, CardColor.CLOVER), Card.of(CardValue.EIGHT, CardColor.CLOVER)),
+				List.of(Card.of(CardValue.NINE, CardColor.CLOVER), Card.of(CardValue.TWO, CardColor.HEART),
+						Card.of(CardValue.KING, CardColor.SPADE)),
+				3).setParallelism(4);
+		EquityResult first = calculator.setSeed(7).calculate(50000);
+		EquityResult second = calculator.setSeed(7).calculate(50000);
+		assertEquals(first.getWins(), second.getWins());
+		assertEquals(first.getTies(), second.getTies());
+		assertEquals(first.getLosses(), second.getLosses());
+	}
+
+	@Test
+	/**
+	 * Every <SamplingMode> finds the same equity, and measures its variance
+	 */
+	void samplingModesTest() {
+		EquityCalculator calculator = new EquityCalculator(
+				List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.KING, CardColor.SPADE)),
+				List.of(Card.of(CardValue.NINE, CardColor.SPADE), Card.of(CardValue.TWO, CardColor.SPADE),
+						Card.of(CardValue.KING, CardColor.HEART)),
+				1).setSeed(11);
+		double exact = calculator.enumerate().getEquity();
+		for (SamplingMode mode : SamplingMode.values()) {
+			EquityResult result = calculator.setSamplingMode(mode).calculate(100000);
+			assertTrue(result.getSamples() >= 100000);
+			assertEquals(result.getEquity(), exact, 5 * result.getStandardError());
+			assertTrue(result.getVarianceReduction() > 0);
+		}
+	}
+
+	@Test
+	/**
+	 * The adaptive run stops once the standard error is reached, or when the time
+	 * is up
+	 */
+	void adaptiveTest() {
+		EquityCalculator calculator = new EquityCalculator(
+				List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.ACE, CardColor.HEART)), List.of(), 1)
+				.setSeed(5).setParallelism(1);
+		EquityResult result = calculator.calculate(0.002, Duration.ofSeconds(30));
+		assertTrue(result.getStandardError() <= 0.002);
+		assertTrue(result.getLowerBound() < 0.852 && 0.852 < result.getUpperBound());
+		// about 30000 samples are needed, the last batch of every worker may be
+		// dealt after the target is reached
+		assertTrue(result.getSamples() < 100000 + 1024 * Runtime.getRuntime().availableProcessors());
+
+		EquityResult timedOut = calculator.calculate(0, Duration.ofMillis(50));
+		assertTrue(timedOut.getSamples() > 0);
+		assertTrue(timedOut.getNanos() < Duration.ofSeconds(5).toNanos());
+	}
+
+	@Test
+	/**
+	 * Enumerating heads-up preflop goes through every board once, whatever the
+	 * number of workers, and agrees with sampling
+	 */
+	void headsUpEnumerationTest() {
+		EquityCalculator calculator = new EquityCalculator(
+				List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.ACE, CardColor.HEART)), List.of(), 0)
+				.addOpponent(List.of(Card.of(CardValue.KING, CardColor.DIAMOND), Card.of(CardValue.KING, CardColor.CLOVER)));
+		assertEquals(calculator.getEnumerationSize(), 1712304L);
+		EquityResult exact = calculator.setParallelism(3).enumerate();
+		EquityResult alone = calculator.setParallelism(1).enumerate();
+		assertEquals(exact.getSamples(), 1712304L);
+		assertEquals(exact.getWins(), alone.getWins());
+		assertEquals(exact.getTies(), alone.getTies());
+		assertEquals(calculator.setSeed(5).calculate(200000).getEquity(), exact.getEquity(), 0.005);
+	}
+
+	@Test
+	/**
+	 * On the river, every hand of an unknown opponent is enumerated
+	 */
+	void riverEnumerationTest() {
+		EquityCalculator calculator = new EquityCalculator(
+				List.of(Card.of(CardValue.QUEEN, CardColor.SPADE), Card.of(CardValue.JACK, CardColor.SPADE)),
+				List.of(Card.of(CardValue.TEN, CardColor.CLOVER), Card.of(CardValue.NINE, CardColor.HEART),
+						Card.of(CardValue.TWO, CardColor.SPADE), Card.of(CardValue.KING, CardColor.DIAMOND),
+						Card.of(CardValue.TWO, CardColor.HEART)),
+				1);
+		EquityResult result = calculator.enumerate();
+		// 45 unknown cards
+		assertEquals(result.getSamples(), 990L);
+		// only full houses beat the straight : the last two twos, a two with a king,
+		// ten or nine, or a pair of kings, tens or nines
+		assertEquals(result.getLosses(), 1L + 2 * 9 + 9);
+		// QJ of another color makes the same straight
+		assertEquals(result.getTies(), 9L);
+	}
+
+	@Test
+	/**
+	 * The 169 <StartingHands> classes hold the 1326 starting hands, and their names
+	 * give back their index
+	 */
+	void startingHandsTest() {
+		int hands = 0;
+		for (int i = 0; i < StartingHands.COUNT; i++) {
+			hands += StartingHands.combinations(i);
+			assertEquals(StartingHands.index(StartingHands.name(i)), i);
+			List<Card> cards = StartingHands.cards(i);
+			assertEquals(StartingHands.index(cards.get(0), cards.get(1)), i);
+		}
+		assertEquals(hands, 1326);
+		assertEquals(StartingHands.name(StartingHands.index(Card.of(CardValue.KING, CardColor.HEART),
+				Card.of(CardValue.ACE, CardColor.HEART))), "AKs");
+	}
+
+	@Test
+	/**
+	 * A small <PreflopTable> has the right equities, and is read back from its file
+	 */
+	void preflopTableTest() throws IOException {
+		PreflopTable table = PreflopTable.generate(2000, 200, 1);
+		int aces = StartingHands.index("AA");
+		int kings = StartingHands.index("KK");
+		assertEquals(table.getEquity(aces, 1), 0.852, 0.03);
+		assertTrue(table.getEquity(aces, 9) < table.getEquity(aces, 1));
+		assertEquals(table.getHeadsUpEquity(aces, kings), 0.82, 0.1);
+		assertEquals(table.getHeadsUpEquity(aces, kings) + table.getHeadsUpEquity(kings, aces), 1, 1e-6);
+
+		Path file = Files.createTempFile("preflop", ".bin");
+		try {
+			table.write(file);
+			PreflopTable read = PreflopTable.read(file);
+			assertEquals(read.getSamples(), 2000);
+			for (int hand = 0; hand < StartingHands.COUNT; hand++) {
+				assertEquals(read.getEquity(hand, 3), table.getEquity(hand, 3), 1e-4);
+				assertEquals(read.getHeadsUpEquity(hand, aces), table.getHeadsUpEquity(hand, aces), 1e-4);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	/**
+	 * A royal flush on the board is shared by every player
+	 */
+	void boardPlaysTest() {
+		EquityResult result = new EquityCalculator(
+				List.of(Card.of(CardValue.TWO, CardColor.SPADE), Card.of(CardValue.THREE, CardColor.HEART)),
+				List.of(Card.of(CardValue.TEN, CardColor.CLOVER), Card.of(CardValue.JACK, CardColor.CLOVER),
+						Card.of(CardValue.QUEEN, CardColor.CLOVER), Card.of(CardValue.KING, CardColor.CLOVER),
+						Card.of(CardValue.ACE, CardColor.CLOVER)),
+				2).setSeed(3).calculate(1000);
+		assertEquals(result.getTies(), 1000L);
+		assertEquals(result.getEquity(), 1.0 / 3, 1e-9);
+		assertTrue(result.getSamplesPerSecond() > 0);
+	}
+
+	@Test
+	/**
+	 * Ranges are parsed in the usual notation, and combos holding a known card
+	 * are removed
+	 */
+	void rangeParseTest() {
+		Range range = Range.parse("TT+, AKs, KQo");
+		assertEquals(range.size(), 5 * 6 + 4 + 12);
+		assertEquals(Range.parse("22-44, A2s-A4s").size(), 3 * 6 + 3 * 4);
+		assertEquals(Range.parse("AsKd").size(), 1);
+		assertEquals(Range.parse("QQ:0.5").getTotalWeight(), 3.0, 1e-6);
+
+		Card aceOfSpades = Card.of(CardValue.ACE, CardColor.SPADE);
+		Range withoutAce = range.withoutCards(aceOfSpades.getMask());
+		assertEquals(withoutAce.size(), range.size() - 3 - 1);
+		assertThrows(IllegalArgumentException.class, () -> Range.parse("AKx"));
+		assertThrows(IllegalArgumentException.class, () -> Range.parse("AA-KQs"));
+	}
+
+	@Test
+	/**
+	 * Aces against kings as ranges give the equity of one combo against the other,
+	 * about 82%
+	 */
+	void rangeEquityTest() {
+		EquityResult result = new RangeEquity(Range.parse("AA"), List.of(), Range.parse("KK")).setSeed(5)
+				.calculate(200000);
+		assertEquals(result.getSamples(), 200000L);
+		assertEquals(result.getEquity(), 0.82, 0.01);
+
+		// no straight nor flush on this river, so the aces always win
+		List<Card> river = List.of(Card.of(CardValue.TWO, CardColor.CLOVER), Card.of(CardValue.SEVEN, CardColor.DIAMOND),
+				Card.of(CardValue.NINE, CardColor.HEART), Card.of(CardValue.JACK, CardColor.SPADE),
+				Card.of(CardValue.THREE, CardColor.CLOVER));
+		assertEquals(new RangeEquity(Range.parse("AA"), river, Range.parse("KK")).calculateOnRiver(), 1.0, 1e-9);
+		assertEquals(new RangeEquity(Range.parse("AA, KK"), river, Range.parse("AA, KK")).calculateOnRiver(), 0.5,
+				1e-9);
+
+		// on a board of three aces, no pair of aces can be dealt
+		List<Card> board = List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.ACE, CardColor.HEART),
+				Card.of(CardValue.ACE, CardColor.DIAMOND));
+		assertThrows(IllegalArgumentException.class,
+				() -> new RangeEquity(Range.parse("AA"), board, Range.parse("KK")));
+	}
+
+	@Test
+	/**
+	 * A flush draw on the flop against a three of a kind : 9 cards give a flush,
+	 * but the last spade jack also gives four jacks to the opponent
+	 */
+	void outsTest() {
+		DealerHand dealer = new DealerHand(new Deck());
+		dealer.addToDealerHand(List.of(Card.of(CardValue.TWO, CardColor.SPADE),
+				Card.of(CardValue.SEVEN, CardColor.SPADE), Card.of(CardValue.JACK, CardColor.DIAMOND)));
+		PlayerHand flushDraw = new PlayerHand(new ArrayList<>(
+				List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.KING, CardColor.SPADE))));
+		PlayerHand jacks = new PlayerHand(new ArrayList<>(
+				List.of(Card.of(CardValue.JACK, CardColor.HEART), Card.of(CardValue.JACK, CardColor.CLOVER))));
+
+		Outs outs = new Outs().calculate(dealer, flushDraw, List.of());
+		assertEquals(outs.size(), 47);
+		int flushes = 0;
+		for (int i = 0; i < outs.size(); i++) {
+			if (outs.getWinCondition(i) == WinCondition.FLUSH) {
+				flushes++;
+			}
+		}
+		assertEquals(flushes, 9);
+
+		outs.calculate(dealer, flushDraw, List.of(jacks));
+		assertEquals(outs.size(), 45);
+		assertTrue(!outs.isAhead());
+		assertEquals(outs.countAhead(), 8);
+		assertEquals(outs.getHitProbability(8), 1 - 37.0 * 36 / (45 * 44), 1e-9);
+	}
+
+	@Test
+	/**
+	 * The equities of a table add up to 1, and the exact enumeration agrees with
+	 * the heads-up <EquityCalculator> for two hands
+	 */
+	void multiwayEquityTest() {
+		List<Card> aces = List.of(Card.of(CardValue.ACE, CardColor.SPADE), Card.of(CardValue.ACE, CardColor.HEART));
+		List<Card> kings = List.of(Card.of(CardValue.KING, CardColor.SPADE), Card.of(CardValue.KING, CardColor.HEART));
+		List<Card> suited = List.of(Card.of(CardValue.SEVEN, CardColor.CLOVER),
+				Card.of(CardValue.EIGHT, CardColor.CLOVER));
+		List<Card> flop = List.of(Card.of(CardValue.NINE, CardColor.CLOVER), Card.of(CardValue.TWO, CardColor.DIAMOND),
+				Card.of(CardValue.KING, CardColor.CLOVER));
+
+		EquityResult[] results = new MultiwayEquity(List.of(aces, kings, suited), flop).setSeed(2).calculate(100000);
+		double total = 0;
+		for (EquityResult result : results) {
+			assertEquals(result.getSamples(), 100000L);
+			total += result.getEquity();
+		}
+		assertEquals(total, 1, 1e-9);
+
+		EquityResult[] exact = new MultiwayEquity(List.of(aces, kings), flop).enumerate();
+		EquityResult headsUp = new EquityCalculator(aces, flop, 0).addOpponent(kings).enumerate();
+		assertEquals(exact[0].getWins(), headsUp.getWins());
+		assertEquals(exact[0].getTies(), headsUp.getTies());
+		assertEquals(exact[1].getWins(), headsUp.getLosses());
+		assertEquals(exact[0].getEquity() + exact[1].getEquity(), 1, 1e-9);
+	}
+}
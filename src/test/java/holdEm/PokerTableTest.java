@@ -1,17 +1,32 @@
 package holdEm;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 
 import org.junit.jupiter.api.Test;
 
 import classes.Card;
 import classes.CardColor;
 import classes.CardValue;
+import classes.Decision;
+import classes.DecisionSource;
+import classes.Deck;
 import classes.Player;
 import classes.PlayerHand;
 import classes.PokerTable;
+import classes.PokerTableAutomatisee;
+import classes.Seats;
+import classes.SidePotResolver;
+import classes.WinningCombination;
+import events.AsyncTableListener;
+import events.Street;
+import events.TableListener;
 
 class PokerTableTest {
 
@@ -130,7 +145,7 @@ class PokerTableTest {
 	}
 	@Test
 	/**
-	 * Tests if the <AllInPot> implementation of <PokerTable> is working fine.
+	 * Tests if the side pots of <PokerTable> are working fine.
 	 * p1 all-ins with less chips than p2 and wins.
 	 */
 	void oneAllInSidePotTest() {
@@ -166,6 +181,436 @@ class PokerTableTest {
 				assertEquals(player2.getChipStack(), 50);
 	}
 	
+	@Test
+	/**
+	 * Both players have a pair of kings, Flavio wins with his ace kicker and
+	 * takes the whole pot instead of splitting it.
+	 */
+	void kickerBreaksTieTest() {
+		Player player1 = new Player("Flavio",50);
+		Player player2 = new Player ("Pablo", 50);
+		PokerTable table = new PokerTable();
+		ArrayList<Card> p1Hand = new ArrayList<>();
+		p1Hand.add(new Card(CardValue.ACE,CardColor.DIAMOND));
+		p1Hand.add(new Card(CardValue.KING,CardColor.DIAMOND));
+		table.addPlayer(player1);
+		table.addPlayer(player2);
+		player1.setHand(new PlayerHand(p1Hand));
+		ArrayList<Card> p2Hand = new ArrayList<>();
+		p2Hand.add(new Card(CardValue.QUEEN,CardColor.HEART));
+		p2Hand.add(new Card(CardValue.KING,CardColor.HEART));
+		player2.setHand(new PlayerHand(p2Hand));
+		ArrayList <Card> dealerHand= new ArrayList<>();
+		dealerHand.add(new Card(CardValue.KING,CardColor.CLOVER));
+		dealerHand.add(new Card(CardValue.SEVEN,CardColor.DIAMOND));
+		dealerHand.add(new Card(CardValue.FIVE,CardColor.SPADE));
+		dealerHand.add(new Card(CardValue.THREE,CardColor.HEART));
+		dealerHand.add(new Card(CardValue.TWO,CardColor.CLOVER));
+		table.getDealer().setHand(dealerHand);
+		table.getPlayers().get(0).bet(40);
+		table.getPlayers().get(1).bet(40);
+		table.turnPots();
+		
+		assertEquals(player1.getChipStack(),90);
+		assertEquals(player2.getChipStack(), 10);
+	}
+	
+	@Test
+	/**
+	 * Two tables with the same seed deal the same hands, and a hand can be dealt
+	 * again from the seed logged by <PokerTable>
+	 */
+	void sameSeedSameHandsTest() {
+		PokerTable table1 = new PokerTable(new SplittableRandom(42));
+		PokerTable table2 = new PokerTable(new SplittableRandom(42));
+		table1.addPlayer(new Player("Flavio",50));
+		table1.addPlayer(new Player("Pablo",50));
+		table2.addPlayer(new Player("Flavio",50));
+		table2.addPlayer(new Player("Pablo",50));
+		table1.getDeck().resetDeck();
+		table2.getDeck().resetDeck();
+		long handSeed = table1.getDeck().getHandSeed();
+		table1.giveCards();
+		table2.giveCards();
+		table1.getDealer().flop();
+		table2.getDealer().flop();
+		assertEquals(table1.getPlayers().get(0).getPlayerHand().getPlayerHand(),
+				table2.getPlayers().get(0).getPlayerHand().getPlayerHand());
+		assertEquals(table1.getPlayers().get(1).getPlayerHand().getPlayerHand(),
+				table2.getPlayers().get(1).getPlayerHand().getPlayerHand());
+		assertEquals(table1.getDealer().getDealerHand(), table2.getDealer().getDealerHand());
+		
+		Deck deck = new Deck();
+		deck.resetDeck(handSeed);
+		assertEquals(deck.getRandomCards(2), table1.getPlayers().get(0).getPlayerHand().getPlayerHand());
+		assertEquals(deck.getRandomCards(2), table1.getPlayers().get(1).getPlayerHand().getPlayerHand());
+		assertEquals(deck.getRandomCards(3), table1.getDealer().getDealerHand());
+	}
+	
+	@Test
+	/**
+	 * A <TableListener> gets every street of a hand, and an <AsyncTableListener>
+	 * gives it the events in the order they happened
+	 */
+	void listenerTest() {
+		List<String> events = new ArrayList<>();
+		TableListener recorder = new TableListener() {
+			@Override
+			public void deal(long handSeed) {
+				events.add("deal");
+			}
+
+			@Override
+			public void street(Street street, List<Card> board) {
+				events.add(street + " " + board.size());
+			}
+
+			@Override
+			public void payout(Player player, int amount, WinningCombination combination) {
+				events.add("payout");
+			}
+		};
+		List<Player> players = new ArrayList<>();
+		players.add(new Player("Flavio", 50));
+		players.add(new Player("Pablo", 50));
+		PokerTableAutomatisee table = new PokerTableAutomatisee(players, new SplittableRandom(1));
+		AsyncTableListener async = new AsyncTableListener(recorder, 2);
+		table.setListener(async);
+		table.startTurnWithPots();
+		async.close();
+		assertEquals(events.subList(0, 5), List.of("deal", "PREFLOP 0", "FLOP 3", "TURN 4", "RIVER 5"));
+		assertEquals(events.get(events.size() - 1), "payout");
+	}
+	
+	@Test
+	/**
+	 * A listener that throws doesn't stop the writer of an <AsyncTableListener>,
+	 * the events after it are still written and <close> doesn't wait forever
+	 */
+	void throwingListenerTest() {
+		List<Long> seeds = new ArrayList<>();
+		AsyncTableListener async = new AsyncTableListener(new TableListener() {
+			@Override
+			public void deal(long handSeed) {
+				if (handSeed == 3) {
+					throw new IllegalStateException("Test failure, to be ignored");
+				}
+				seeds.add(handSeed);
+			}
+		}, 2);
+		for (long seed = 0; seed < 100; seed++) {
+			async.deal(seed);
+		}
+		async.close();
+		assertEquals(seeds.size(), 99);
+		assertEquals(async.getFailures(), 1L);
+	}
+	
+	@Test
+	/**
+	 * A player whose decision comes later from another thread is waited for, and
+	 * the others are asked again after a raise
+	 */
+	void decisionSourceTest() {
+		Player player1 = new Player("Flavio", 100);
+		Player player2 = new Player("Pablo", 100);
+		Player player3 = new Player("Raymond", 100);
+		PokerTable table = new PokerTable();
+		table.setListener(TableListener.NONE);
+		table.addPlayer(player1);
+		table.addPlayer(player2);
+		table.addPlayer(player3);
+		table.setDecisionSource((player, highestBet) -> CompletableFuture.completedFuture(Decision.call()));
+		table.setDecisionSource(player2, (player, highestBet) -> CompletableFuture
+				.supplyAsync(() -> highestBet == 0 ? Decision.raise(20) : Decision.call()));
+		
+		int playersInRound = table.startBettingRound().join();
+		assertEquals(playersInRound, 3);
+		assertEquals(player1.getBet(), 20);
+		assertEquals(player2.getBet(), 20);
+		assertEquals(player3.getBet(), 20);
+		
+		table.setDecisionSource(player3, (player, highestBet) -> CompletableFuture.completedFuture(Decision.fold()));
+		table.setDecisionSource(player1, (player, highestBet) -> CompletableFuture.completedFuture(Decision.raise(100)));
+		assertEquals(table.askForBetsWithPots(3), 0);
+		assertTrue(player1.isAllIn());
+		assertTrue(player2.isAllIn());
+		assertTrue(!player3.hasNotFolded());
+	}
+	
+	@Test
+	/**
+	 * Seat 1 is all-in for 50 with the best hand, seats 2 and 3 tie for the side
+	 * pot and seat 0 folded after putting in the most, so the top layer goes
+	 * back to him.
+	 */
+	void sidePotResolverTest() {
+		SidePotResolver resolver = new SidePotResolver();
+		int[] contributions = { 130, 50, 101, 101 };
+		int[] ranks = { 300, 200, 100, 100 };
+		
+		assertEquals(resolver.resolve(contributions, ranks, 0b1110, 4), 3);
+		assertEquals(resolver.getValue(0), 200);
+		assertEquals(resolver.getWinners(0), 0b10L);
+		assertEquals(resolver.getValue(1), 153);
+		assertEquals(resolver.getWinners(1), 0b1100L);
+		assertEquals(resolver.getShare(1), 76);
+		assertEquals(resolver.getRemainder(1), 1);
+		assertEquals(resolver.getValue(2), 29);
+		assertEquals(resolver.getWinners(2), 0b1L);
+	}
+	
+	@Test
+	/**
+	 * The state of the players is read into the bitmasks of the <Seats>, and a
+	 * broke player loses his seat in the game but not at the table.
+	 */
+	void seatsTest() {
+		Player player1 = new Player("Flavio", 10);
+		Player player2 = new Player("Pablo", 100);
+		Player player3 = new Player("Mingo", 100);
+		PokerTable table = new PokerTable();
+		table.addPlayer(player1);
+		table.addPlayer(player2);
+		table.addPlayer(player3);
+		player1.bet(50);
+		player2.bet(30);
+		player3.fold();
+		table.findHighestBet();
+		
+		Seats seats = table.getSeats();
+		assertEquals(seats.active(), 0b111L);
+		assertEquals(seats.allIn(), 0b001L);
+		assertEquals(seats.folded(), 0b100L);
+		assertEquals(seats.betting(), 0b010L);
+		assertEquals(seats.getBet(1), 30);
+		assertEquals(seats.highestBet(), 30);
+		assertEquals(Seats.next(seats.inHand(), 2), 0);
+		
+		table.kickBrokePlayers();
+		assertEquals(seats.active(), 0b110L);
+		assertEquals(seats.seatOf(player3), 2);
+		assertEquals(table.getPlayers().size(), 2);
+		assertEquals(table.getPlayers().get(0), player2);
+	}
+	
+	@Test
+	/**
+	 * A pooled table deals the same cards as another table with the same seed,
+	 * and keeps the same <PlayerHand> from deal to deal. What it allocates is
+	 * measured by <PooledTableBenchmark>.
+	 */
+	void pooledTableTest() {
+		List<Player> players = new ArrayList<>();
+		List<Player> otherPlayers = new ArrayList<>();
+		for (int i = 0; i < 9; i++) {
+			players.add(new Player("Player " + i, 1000000));
+			otherPlayers.add(new Player("Player " + i, 1000000));
+		}
+		PokerTable table = new PokerTable(players, new SplittableRandom(42));
+		PokerTable otherTable = new PokerTable(otherPlayers, new SplittableRandom(42));
+		table.setPooled(true);
+		CompletableFuture<Decision> call = CompletableFuture.completedFuture(Decision.call());
+		DecisionSource alwaysCall = (player, highestBet) -> call;
+		for (PokerTable aTable : List.of(table, otherTable)) {
+			aTable.setListener(TableListener.NONE);
+			aTable.setDecisionSource(alwaysCall);
+		}
+		
+		table.startTurnWithPots();
+		otherTable.startTurnWithPots();
+		PlayerHand hand = players.get(3).getPlayerHand();
+		table.startTurnWithPots();
+		otherTable.startTurnWithPots();
+		assertTrue(players.get(3).getPlayerHand() == hand);
+		for (int i = 0; i < 9; i++) {
+			assertEquals(players.get(i).getPlayerHand().getPlayerHand(), otherPlayers.get(i).getPlayerHand().getPlayerHand());
+			assertEquals(players.get(i).getChipStack(), otherPlayers.get(i).getChipStack());
+		}
+	}
+	
+	@Test
+	/**
+	 * An <AsyncTableListener> behind a pooled table reports the combinations of
+	 * each deal, even when it writes them once the table has dealt again
+	 */
+	void pooledAsyncListenerTest() {
+		CountDownLatch played = new CountDownLatch(1);
+		List<List<String>> events = List.of(new ArrayList<>(), new ArrayList<>());
+		List<PokerTable> tables = new ArrayList<>();
+		List<List<Player>> players = new ArrayList<>();
+		CompletableFuture<Decision> call = CompletableFuture.completedFuture(Decision.call());
+		for (int t = 0; t < 2; t++) {
+			List<String> recorded = events.get(t);
+			boolean pooled = t == 0;
+			TableListener recorder = new TableListener() {
+				@Override
+				public void showdown(Player player, List<Card> cards, WinningCombination combination) {
+					if (pooled) {
+						// the events are only written once every deal is played
+						try {
+							played.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					recorded.add(player.getName() + " shows " + combination.getRank());
+				}
+
+				@Override
+				public void payout(Player player, int amount, WinningCombination combination) {
+					recorded.add(player.getName() + " won " + amount + " " + combination.getRank());
+				}
+			};
+			List<Player> tablePlayers = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				tablePlayers.add(new Player("Player " + i, 1000000));
+			}
+			PokerTable table = new PokerTable(tablePlayers, new SplittableRandom(42));
+			table.setPooled(pooled);
+			table.setListener(pooled ? new AsyncTableListener(recorder) : recorder);
+			table.setDecisionSource((player, highestBet) -> call);
+			tables.add(table);
+			players.add(tablePlayers);
+		}
+		
+		for (int deal = 0; deal < 20; deal++) {
+			tables.get(0).startTurnWithPots();
+			tables.get(1).startTurnWithPots();
+		}
+		played.countDown();
+		((AsyncTableListener) tables.get(0).getListener()).close();
+		assertEquals(players.get(0).get(0).getChipStack(), players.get(1).get(0).getChipStack());
+		assertEquals(events.get(0), events.get(1));
+	}
+	
+	@Test
+	/**
+	 * <startHand> returns without waiting for a decision, the rest of the hand is
+	 * played by the thread that gives the decision
+	 */
+	void startHandTest() {
+		Player player1 = new Player("Flavio", 100);
+		Player player2 = new Player("Pablo", 100);
+		PokerTable table = new PokerTable(new SplittableRandom(3));
+		table.setListener(TableListener.NONE);
+		table.addPlayer(player1);
+		table.addPlayer(player2);
+		CompletableFuture<Void> remote = new CompletableFuture<>();
+		table.setDecisionSource((player, highestBet) -> remote.thenApply(answer -> Decision.call()));
+		
+		CompletableFuture<Void> hand = table.startHand();
+		assertTrue(!hand.isDone());
+		assertEquals(table.getDealer().getDealerHand().size(), 0);
+		remote.complete(null);
+		assertTrue(hand.isDone());
+		assertEquals(player1.getChipStack() + player2.getChipStack(), 200);
+		assertTrue(player1.getChipStack() != 100);
+	}
+	
+	@Test
+	/**
+	 * No chip is made or lost from hand to hand, also once a player is broke and
+	 * kicked out of the game, whatever the cards dealt
+	 */
+	void chipsAreKeptTest() {
+		CompletableFuture<Decision> call = CompletableFuture.completedFuture(Decision.call());
+		for (long seed = 0; seed < 20; seed++) {
+			List<Player> players = new ArrayList<>();
+			players.add(new Player("Flavio", 3));
+			players.add(new Player("Pablo", 100));
+			players.add(new Player("Mingo", 101));
+			PokerTable table = new PokerTable(players, new SplittableRandom(seed));
+			table.setListener(TableListener.NONE);
+			table.setDecisionSource((player, highestBet) -> call);
+			
+			for (int hand = 0; hand < 10 && table.howManyAreStillPlaying() > 1; hand++) {
+				table.startTurnWithPots();
+				int chips = 0;
+				for (Player player : players) {
+					chips += player.getChipStack() + player.getBet();
+				}
+				assertEquals(chips, 204);
+			}
+			if (seed == 0) {
+				assertEquals(players.get(0).isPlaying(), false);
+			}
+		}
+	}
+	
+	@Test
+	/**
+	 * Two players split a pot of an odd number of chips, the one with the lowest
+	 * seat gets the chip left
+	 */
+	void oddChipTest() {
+		Player player1 = new Player("Flavio", 100);
+		Player player2 = new Player("Pablo", 100);
+		Player player3 = new Player("Mingo", 100);
+		PokerTable table = new PokerTable();
+		table.setListener(TableListener.NONE);
+		player1.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.KING, CardColor.CLOVER), new Card(CardValue.NINE, CardColor.DIAMOND)))));
+		player2.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.QUEEN, CardColor.CLOVER), new Card(CardValue.EIGHT, CardColor.HEART)))));
+		player3.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.ACE, CardColor.CLOVER), new Card(CardValue.ACE, CardColor.SPADE)))));
+		table.addPlayer(player1);
+		table.addPlayer(player2);
+		table.addPlayer(player3);
+		// the board is a straight that both players play
+		table.getDealer().setHand(new ArrayList<>(List.of(new Card(CardValue.TWO, CardColor.SPADE),
+				new Card(CardValue.THREE, CardColor.CLOVER), new Card(CardValue.FOUR, CardColor.DIAMOND),
+				new Card(CardValue.FIVE, CardColor.HEART), new Card(CardValue.SIX, CardColor.SPADE))));
+		
+		player1.bet(10);
+		player2.bet(10);
+		player3.bet(5);
+		player3.fold();
+		table.turnPots();
+		
+		assertEquals(player1.getChipStack(), 90 + 13);
+		assertEquals(player2.getChipStack(), 90 + 12);
+	}
+	
+	@Test
+	/**
+	 * The players that show their hand and win no pot are reported as losing
+	 * their bet, in the order of the seats, the ones that folded are not
+	 */
+	void lossTest() {
+		List<String> losses = new ArrayList<>();
+		Player player1 = new Player("Flavio", 100);
+		Player player2 = new Player("Pablo", 100);
+		Player player3 = new Player("Mingo", 100);
+		Player player4 = new Player("Abel", 100);
+		PokerTable table = new PokerTable();
+		table.setListener(new TableListener() {
+			@Override
+			public void loss(Player player, int bet, WinningCombination combination) {
+				losses.add(player.getName() + " " + bet + " " + combination.getWinCondition());
+			}
+		});
+		player1.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.TEN, CardColor.CLOVER), new Card(CardValue.TEN, CardColor.DIAMOND)))));
+		player2.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.NINE, CardColor.CLOVER), new Card(CardValue.KING, CardColor.HEART)))));
+		player3.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.JACK, CardColor.CLOVER), new Card(CardValue.JACK, CardColor.SPADE)))));
+		player4.setHand(new PlayerHand(new ArrayList<>(List.of(new Card(CardValue.ACE, CardColor.CLOVER), new Card(CardValue.ACE, CardColor.SPADE)))));
+		table.addPlayer(player1);
+		table.addPlayer(player2);
+		table.addPlayer(player3);
+		table.addPlayer(player4);
+		table.getDealer().setHand(new ArrayList<>(List.of(new Card(CardValue.TWO, CardColor.CLOVER),
+				new Card(CardValue.THREE, CardColor.CLOVER), new Card(CardValue.FIVE, CardColor.DIAMOND),
+				new Card(CardValue.SIX, CardColor.HEART), new Card(CardValue.EIGHT, CardColor.SPADE))));
+		
+		player1.bet(40);
+		player2.bet(60);
+		player3.bet(60);
+		player4.bet(20);
+		player4.fold();
+		table.turnPots();
+		
+		assertEquals(losses, List.of("Flavio 40 PAIR", "Pablo 60 HIGH_CARD"));
+		assertEquals(player3.getChipStack(), 40 + 180);
+	}
+	
 	//TODO : Test with 3+ players. Test with multiple all-in players, that each
 	//have different chipstacks.
 	@Test
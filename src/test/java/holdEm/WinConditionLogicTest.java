@@ -1,14 +1,311 @@
 package holdEm;
 
-import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 
+import classes.Card;
+import classes.CardColor;
+import classes.CardValue;
+import classes.DealerHand;
+import classes.Deck;
+import classes.PlayerHand;
+import classes.WinCondition;
+import classes.WinningCombination;
+import logic.BitmaskEvaluator;
+import logic.BoardRankTable;
+import logic.EvaluationCache;
+import logic.Evaluator;
+import logic.SuitIsomorphism;
+import logic.WinConditionLogic;
+
 class WinConditionLogicTest {
 
 	@Test
-	void test() {
-		fail("Not yet implemented");
+	/**
+	 * A pair in the middle of a straight must not hide the straight
+	 */
+	void straightWithAPairTest() {
+		WinningCombination wc = evaluate(hand(CardValue.FOUR, CardColor.SPADE, CardValue.FOUR, CardColor.HEART),
+				CardValue.TWO, CardColor.CLOVER, CardValue.THREE, CardColor.DIAMOND, CardValue.FIVE, CardColor.SPADE,
+				CardValue.SIX, CardColor.HEART, CardValue.KING, CardColor.CLOVER);
+		assertEquals(wc.getWinCondition(), WinCondition.STRAIGHT);
+		assertEquals(wc.getCardValue(), CardValue.SIX);
+	}
+
+	@Test
+	/**
+	 * ACE,TWO,THREE,FOUR,FIVE is a straight with FIVE as highest card
+	 */
+	void wheelStraightTest() {
+		WinningCombination wc = evaluate(hand(CardValue.ACE, CardColor.SPADE, CardValue.FOUR, CardColor.HEART),
+				CardValue.TWO, CardColor.CLOVER, CardValue.THREE, CardColor.DIAMOND, CardValue.FIVE, CardColor.SPADE,
+				CardValue.NINE, CardColor.HEART, CardValue.KING, CardColor.CLOVER);
+		assertEquals(wc.getWinCondition(), WinCondition.STRAIGHT);
+		assertEquals(wc.getCardValue(), CardValue.FIVE);
+	}
+
+	@Test
+	/**
+	 * A flush and a straight made of different cards are not a straight flush
+	 */
+	void flushAndStraightTest() {
+		WinningCombination wc = evaluate(hand(CardValue.ACE, CardColor.HEART, CardValue.SIX, CardColor.SPADE),
+				CardValue.TWO, CardColor.HEART, CardValue.THREE, CardColor.HEART, CardValue.FOUR, CardColor.HEART,
+				CardValue.FIVE, CardColor.CLOVER, CardValue.KING, CardColor.HEART);
+		assertEquals(wc.getWinCondition(), WinCondition.FLUSH);
+		assertEquals(wc.getCardValue(), CardValue.ACE);
+	}
+
+	@Test
+	/**
+	 * Two three of a kind make a full house
+	 */
+	void twoThreeOfAKindTest() {
+		WinningCombination wc = evaluate(hand(CardValue.NINE, CardColor.HEART, CardValue.NINE, CardColor.SPADE),
+				CardValue.NINE, CardColor.CLOVER, CardValue.FOUR, CardColor.HEART, CardValue.FOUR, CardColor.DIAMOND,
+				CardValue.FOUR, CardColor.CLOVER, CardValue.KING, CardColor.HEART);
+		assertEquals(wc.getWinCondition(), WinCondition.FULL_HOUSE);
+	}
+
+	@Test
+	/**
+	 * Kickers and the second pair break ties between hands of the same
+	 * <WinCondition>
+	 */
+	void kickersTest() {
+		WinningCombination aceKicker = evaluate(hand(CardValue.ACE, CardColor.SPADE, CardValue.NINE, CardColor.HEART),
+				CardValue.NINE, CardColor.CLOVER, CardValue.FOUR, CardColor.DIAMOND, CardValue.SEVEN, CardColor.SPADE,
+				CardValue.TWO, CardColor.HEART, CardValue.KING, CardColor.CLOVER);
+		WinningCombination queenKicker = evaluate(hand(CardValue.QUEEN, CardColor.SPADE, CardValue.NINE, CardColor.SPADE),
+				CardValue.NINE, CardColor.CLOVER, CardValue.FOUR, CardColor.DIAMOND, CardValue.SEVEN, CardColor.SPADE,
+				CardValue.TWO, CardColor.HEART, CardValue.KING, CardColor.CLOVER);
+		assertEquals(aceKicker.getWinCondition(), WinCondition.PAIR);
+		assertEquals(aceKicker.getCardValue(1), CardValue.ACE);
+		assertTrue(aceKicker.compareTo(queenKicker) > 0);
+
+		WinningCombination kingsAndFours = evaluate(hand(CardValue.KING, CardColor.SPADE, CardValue.FOUR, CardColor.HEART),
+				CardValue.KING, CardColor.CLOVER, CardValue.FOUR, CardColor.DIAMOND, CardValue.SEVEN, CardColor.SPADE,
+				CardValue.TWO, CardColor.HEART, CardValue.NINE, CardColor.CLOVER);
+		WinningCombination kingsAndSevens = evaluate(hand(CardValue.KING, CardColor.SPADE, CardValue.SEVEN, CardColor.HEART),
+				CardValue.KING, CardColor.CLOVER, CardValue.FOUR, CardColor.DIAMOND, CardValue.SEVEN, CardColor.SPADE,
+				CardValue.TWO, CardColor.HEART, CardValue.NINE, CardColor.CLOVER);
+		assertEquals(kingsAndFours.getWinCondition(), WinCondition.TWO_PAIR);
+		assertTrue(kingsAndSevens.compareTo(kingsAndFours) > 0);
+	}
+
+	@Test
+	/**
+	 * The bitmask evaluator and the scanning evaluator agree on random hands
+	 */
+	void sameResultsAsScanningTest() {
+		for (int i = 0; i < 20000; i++) {
+			Deck deck = new Deck();
+			DealerHand dealer = new DealerHand(deck);
+			// also check incomplete dealer hands
+			dealer.addToDealerHand(deck.getRandomCards(i % 6));
+			PlayerHand playerHand = new PlayerHand(deck.getRandomCards(2));
+			WinningCombination expected = WinConditionLogic.findWinningCombinationByScanning(dealer, playerHand);
+			WinningCombination actual = WinConditionLogic.findWinningCombination(dealer, playerHand);
+			assertEquals(expected.getRank(), actual.getRank());
+		}
+	}
+
+	@Test
+	/**
+	 * The lookup table evaluator agrees with the bitmask evaluator on random
+	 * hands of 5, 6 and 7 cards
+	 */
+	void lookupTableTest() {
+		WinConditionLogic.setEvaluator(Evaluator.LOOKUP_TABLE);
+		try {
+			for (int i = 0; i < 20000; i++) {
+				Deck deck = new Deck();
+				DealerHand dealer = new DealerHand(deck);
+				dealer.addToDealerHand(deck.getRandomCards(3 + i % 3));
+				PlayerHand playerHand = new PlayerHand(deck.getRandomCards(2));
+				WinningCombination expected = BitmaskEvaluator.findWinningCombination(dealer, playerHand);
+				WinningCombination actual = WinConditionLogic.findWinningCombination(dealer, playerHand);
+				assertEquals(expected.getRank(), actual.getRank());
+			}
+		} finally {
+			WinConditionLogic.setEvaluator(Evaluator.BITMASK);
+		}
+	}
+
+	@Test
+	/**
+	 * The state kept by the dealer hand gives the same ranks as evaluating every
+	 * card, after the flop, the turn and the river
+	 */
+	void dealerHandStateTest() {
+		for (int i = 0; i < 2000; i++) {
+			Deck deck = new Deck();
+			DealerHand dealer = new DealerHand(deck);
+			PlayerHand playerHand = new PlayerHand(deck.getRandomCards(2));
+			long playerCards = BitmaskEvaluator.cardMask(playerHand.getPlayerHand());
+			dealer.flop();
+			assertEquals(BitmaskEvaluator.evaluate(BitmaskEvaluator.cardMask(dealer.getDealerHand()) | playerCards),
+					WinConditionLogic.findHandRank(dealer, playerHand));
+			dealer.turn();
+			assertEquals(BitmaskEvaluator.evaluate(BitmaskEvaluator.cardMask(dealer.getDealerHand()) | playerCards),
+					WinConditionLogic.findHandRank(dealer, playerHand));
+			dealer.river();
+			assertEquals(BitmaskEvaluator.evaluate(BitmaskEvaluator.cardMask(dealer.getDealerHand()) | playerCards),
+					WinConditionLogic.findHandRank(dealer, playerHand));
+			dealer.clear();
+			assertEquals(0L, dealer.getCardMask());
+		}
+	}
+
+	@Test
+	/**
+	 * Evaluating a whole table at once gives the ranks of evaluating each player
+	 * alone, with every <Evaluator>
+	 */
+	void findHandRanksTest() {
+		for (Evaluator evaluator : Evaluator.values()) {
+			WinConditionLogic.setEvaluator(evaluator);
+			try {
+				for (int i = 0; i < 500; i++) {
+					Deck deck = new Deck();
+					DealerHand dealer = new DealerHand(deck);
+					PlayerHand[] playerHands = new PlayerHand[10];
+					for (int j = 0; j < playerHands.length; j++) {
+						playerHands[j] = new PlayerHand(deck.getRandomCards(2));
+					}
+					dealer.addToDealerHand(deck.getRandomCards(3 + i % 3));
+					int[] ranks = WinConditionLogic.findHandRanks(dealer, playerHands);
+					for (int j = 0; j < playerHands.length; j++) {
+						assertEquals(WinConditionLogic.findWinningCombinationByScanning(dealer, playerHands[j]).getRank(),
+								ranks[j]);
+					}
+				}
+			} finally {
+				WinConditionLogic.setEvaluator(Evaluator.BITMASK);
+			}
+		}
+	}
+
+	@Test
+	/**
+	 * The <EvaluationCache> gives back the ranks it was given, and hands seen twice
+	 * are found in it
+	 */
+	void evaluationCacheTest() {
+		EvaluationCache cache = new EvaluationCache(1000);
+		assertEquals(cache.capacity(), 1024);
+		WinConditionLogic.setCache(cache);
+		try {
+			List<DealerHand> dealers = new ArrayList<>();
+			List<PlayerHand> playerHands = new ArrayList<>();
+			for (int i = 0; i < 200; i++) {
+				Deck deck = new Deck();
+				DealerHand dealer = new DealerHand(deck);
+				dealer.addToDealerHand(deck.getRandomCards(5));
+				dealers.add(dealer);
+				playerHands.add(new PlayerHand(deck.getRandomCards(2)));
+			}
+			for (int pass = 0; pass < 2; pass++) {
+				for (int i = 0; i < dealers.size(); i++) {
+					assertEquals(WinConditionLogic.findWinningCombinationByScanning(dealers.get(i), playerHands.get(i))
+							.getRank(), WinConditionLogic.findHandRank(dealers.get(i), playerHands.get(i)));
+				}
+			}
+			assertTrue(cache.getHits() >= 150);
+			assertEquals(cache.getHits() + cache.getMisses(), 400L);
+		} finally {
+			WinConditionLogic.setCache(null);
+		}
+	}
+
+	@Test
+	/**
+	 * Swapping colors gives the same group, and a group gives back cards of the
+	 * same group
+	 */
+	void suitIsomorphismTest() {
+		assertEquals(SuitIsomorphism.boardCount(3), 1755);
+		// spades to hearts, hearts to clovers, clovers to diamonds, diamonds to
+		// spades
+		int permutation = 2 | 0 << 2 | 3 << 4 | 1 << 6;
+		for (int i = 0; i < 2000; i++) {
+			Deck deck = new Deck();
+			long hole = BitmaskEvaluator.cardMask(deck.getRandomCards(2));
+			long board = BitmaskEvaluator.cardMask(deck.getRandomCards(i % 4 + 2));
+			int index = SuitIsomorphism.index(hole, board);
+			int size = Long.bitCount(board);
+			assertEquals(SuitIsomorphism.index(SuitIsomorphism.apply(permutation, hole),
+					SuitIsomorphism.apply(permutation, board)), index);
+			assertEquals(SuitIsomorphism.index(SuitIsomorphism.holeFromIndex(size, index),
+					SuitIsomorphism.boardFromIndex(size, index)), index);
+			assertEquals(SuitIsomorphism.canonical(SuitIsomorphism.apply(permutation, hole | board)),
+					SuitIsomorphism.canonical(hole | board));
+			assertEquals(BitmaskEvaluator.evaluate(SuitIsomorphism.canonical(hole | board)),
+					BitmaskEvaluator.evaluate(hole | board));
+		}
+	}
+
+	@Test
+	/**
+	 * The <BoardRankTable> of a river counts the combos each combo beats and ties
+	 * like comparing it with every other combo
+	 */
+	void boardRankTableTest() {
+		Deck deck = new Deck(7);
+		DealerHand dealer = new DealerHand(deck);
+		dealer.addToDealerHand(deck.getRandomCards(5));
+		BoardRankTable table = dealer.getRankTable();
+		assertEquals(table.size(), 47 * 46 / 2);
+		for (int combo = 0; combo < BoardRankTable.COMBOS; combo++) {
+			long cards = BoardRankTable.cardMask(combo);
+			if ((cards & dealer.getCardMask()) != 0) {
+				assertEquals(table.getRank(combo), -1);
+				continue;
+			}
+			assertEquals(table.getRank(combo), BitmaskEvaluator.evaluate(dealer, cards));
+			int wins = 0;
+			int ties = 0;
+			for (int other = 0; other < BoardRankTable.COMBOS; other++) {
+				if (table.getRank(other) >= 0 && (BoardRankTable.cardMask(other) & cards) == 0) {
+					wins += table.getRank(other) < table.getRank(combo) ? 1 : 0;
+					ties += table.getRank(other) == table.getRank(combo) ? 1 : 0;
+				}
+			}
+			assertEquals(table.getWins(combo), wins);
+			assertEquals(table.getTies(combo), ties);
+		}
+		for (int i = 1; i < table.size(); i++) {
+			assertTrue(table.getRank(table.getCombo(i - 1)) <= table.getRank(table.getCombo(i)));
+		}
+	}
+
+	private static PlayerHand hand(CardValue v1, CardColor c1, CardValue v2, CardColor c2) {
+		ArrayList<Card> cards = new ArrayList<>();
+		cards.add(new Card(v1, c1));
+		cards.add(new Card(v2, c2));
+		return new PlayerHand(cards);
+	}
+
+	/**
+	 * @param playerHand : the player cards
+	 * @param board      : value,color pairs of the dealer cards
+	 */
+	private static WinningCombination evaluate(PlayerHand playerHand, Object... board) {
+		List<Card> cards = new ArrayList<>();
+		for (int i = 0; i < board.length; i += 2) {
+			cards.add(new Card((CardValue) board[i], (CardColor) board[i + 1]));
+		}
+		DealerHand dealer = new DealerHand(new Deck());
+		dealer.setHand(cards);
+		WinningCombination scanned = WinConditionLogic.findWinningCombinationByScanning(dealer, playerHand);
+		WinningCombination wc = WinConditionLogic.findWinningCombination(dealer, playerHand);
+		assertEquals(scanned.getRank(), wc.getRank());
+		return wc;
 	}
 
 }